@@ -0,0 +1,34 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java.sourceCompatibility = JavaVersion.VERSION_21
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmhImplementation(project(":common"))
+    jmhImplementation("org.springframework.boot:spring-boot-starter-web:3.0.4")
+    jmhImplementation("org.springframework.boot:spring-boot-starter-security:3.0.4")
+    jmhImplementation("org.springframework:spring-test:6.0.6")
+    jmhImplementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:2.14.2")
+}
+
+// Run with ./gradlew :benchmarks:jmh, -Pjmh.includes=<regex> picks benchmarks by name.
+// Results are written as JSON, to build/results/jmh/results.json or -Pjmh.results=<file>, e.g. one file per release.
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    resultFormat.set("JSON")
+    resultsFile.set((project.findProperty("jmh.results") as String?)
+            ?.let { rootProject.layout.projectDirectory.file(it) }
+            ?: layout.buildDirectory.file("results/jmh/results.json").get())
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,109 @@
+package ru.scriptrid.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.scriptrid.common.dto.OrderDto;
+import ru.scriptrid.common.dto.ProductDto;
+import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.common.dto.UserDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing and reading the DTOs that travel between the services, in each wire format the services
+ * negotiate: JSON with an {@link ObjectMapper} set up as Spring Boot sets up the one of the message converters,
+ * and Smile and CBOR with the mappers Spring builds for their converters. The encoded sizes are printed at setup.
+ * Run with {@code ./gradlew :benchmarks:jmh -Pjmh.includes=DtoCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoCodecBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private ProductDto product;
+    private OrderDto order;
+    private TransactionDto transaction;
+    private UserDto user;
+    private byte[] productBytes;
+    private byte[] orderBytes;
+    private byte[] transactionBytes;
+    private byte[] userBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json()
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        ZonedDateTime time = ZonedDateTime.parse("2023-03-14T12:30:00+03:00");
+        product = new ProductDto(17, "Mechanical keyboard", "Hot-swappable switches, 87 keys", 3,
+                new BigDecimal("129.90"), 250, Set.of("keyboard", "peripherals", "mechanical"),
+                Map.of("layout", "ANSI", "switches", "brown", "connection", "USB-C"), new BigDecimal("0.90"));
+        order = new OrderDto(1001, time, 5003, 17, 42, 7, 2, new BigDecimal("116.91"), new BigDecimal("233.82"),
+                false, null);
+        transaction = new TransactionDto(5003, 42, 7, new BigDecimal("-233.82"), new BigDecimal("222.13"), false,
+                time);
+        user = new UserDto(42, "user42", "user42@shop.io", false, false, false);
+        productBytes = mapper.writeValueAsBytes(product);
+        orderBytes = mapper.writeValueAsBytes(order);
+        transactionBytes = mapper.writeValueAsBytes(transaction);
+        userBytes = mapper.writeValueAsBytes(user);
+        System.out.printf("%n%s bytes: product %d, order %d, transaction %d, user %d%n", format,
+                productBytes.length, orderBytes.length, transactionBytes.length, userBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws IOException {
+        return mapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public ProductDto readProduct() throws IOException {
+        return mapper.readValue(productBytes, ProductDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeOrder() throws IOException {
+        return mapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public OrderDto readOrder() throws IOException {
+        return mapper.readValue(orderBytes, OrderDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeTransaction() throws IOException {
+        return mapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public TransactionDto readTransaction() throws IOException {
+        return mapper.readValue(transactionBytes, TransactionDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws IOException {
+        return mapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public UserDto readUser() throws IOException {
+        return mapper.readValue(userBytes, UserDto.class);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.scriptrid.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a {@link JwtAuthenticationToken} from verified claims, which happens once for every token that
+ * is not in the cache of {@code JwtVerifier}.
+ * Run with {@code ./gradlew :benchmarks:jmh -Pjmh.includes=JwtAuthenticationTokenBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthenticationTokenBenchmark {
+    private static final String JWT = "header.payload.signature";
+
+    @Param({"user", "admin", "service"})
+    private String role;
+
+    private Claims claims;
+
+    @Setup
+    public void setUp() {
+        boolean isService = "service".equals(role);
+        claims = Jwts.claims(Map.of(
+                "id", isService ? -1L : 42L,
+                "username", role,
+                "email", role + "@shop.io",
+                "isAdmin", !"user".equals(role),
+                "isService", isService));
+    }
+
+    @Benchmark
+    public JwtAuthenticationToken fromClaims() {
+        return new JwtAuthenticationToken(claims, JWT);
+    }
+}
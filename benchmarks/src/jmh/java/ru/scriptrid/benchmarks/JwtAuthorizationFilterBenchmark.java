@@ -0,0 +1,106 @@
+package ru.scriptrid.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.common.security.JwtAuthorizationFilter;
+import ru.scriptrid.common.security.JwtVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request by its bearer token, over {@code users} distinct tokens sent in turn.
+ * {@code perRequestParser} is what the filter used to do: build a parser and derive the key from the secret for
+ * every request. {@code prebuiltParser} and {@code cachedTokens} run {@link JwtAuthorizationFilter} with the cache
+ * of {@link JwtVerifier} off and on. Run with {@code ./gradlew :benchmarks:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtAuthorizationFilterBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(30);
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"1000"})
+    private int users;
+
+    private String[] tokens;
+    private MockHttpServletRequest[] requests;
+    private JwtAuthorizationFilter uncachedFilter;
+    private JwtAuthorizationFilter cachedFilter;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tokens = new String[users];
+        requests = new MockHttpServletRequest[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = Jwts.builder()
+                    .claim("id", (long) i)
+                    .claim("username", "user" + i)
+                    .claim("email", "user" + i + "@shop.io")
+                    .claim("isAdmin", false)
+                    .claim("isService", false)
+                    .setIssuedAt(new Date())
+                    .setIssuer("benchmark")
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                    .compact();
+            requests[i] = new MockHttpServletRequest("GET", "/api/user/" + i);
+            requests[i].addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens[i]);
+        }
+        uncachedFilter = new JwtAuthorizationFilter(new JwtVerifier(SECRET, 0, TTL, CLOCK_SKEW));
+        cachedFilter = new JwtAuthorizationFilter(new JwtVerifier(SECRET, 10_000, TTL, CLOCK_SKEW));
+    }
+
+    @Benchmark
+    public JwtAuthenticationToken perRequestParser() {
+        String jwt = tokens[nextIndex()];
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+        return new JwtAuthenticationToken(claims, jwt);
+    }
+
+    @Benchmark
+    public Object prebuiltParser() throws ServletException, IOException {
+        return filter(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object cachedTokens() throws ServletException, IOException {
+        return filter(cachedFilter);
+    }
+
+    private Object filter(JwtAuthorizationFilter filter) throws ServletException, IOException {
+        MockHttpServletRequest request = requests[nextIndex()];
+        request.clearAttributes();
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == users ? 0 : index + 1;
+        return index;
+    }
+}
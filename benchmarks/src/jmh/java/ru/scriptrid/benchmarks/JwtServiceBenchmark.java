@@ -0,0 +1,56 @@
+package ru.scriptrid.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the tokens {@link JwtService} hands out. {@code userToken} signs one at login. For the service token of an
+ * outbound call, {@code signedPerCall} refreshes it on every call, as every call used to sign one, and
+ * {@code cached} reuses it until it is about to expire.
+ * Run with {@code ./gradlew :benchmarks:jmh -Pjmh.includes=JwtServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtServiceBenchmark {
+    private static final Duration LIFETIME = Duration.ofMinutes(10);
+    private static final UserDto USER = new UserDto(42, "user42", "user42@shop.io", false, false, false);
+
+    private JwtService signingService;
+    private JwtService cachingService;
+
+    @Setup
+    public void setUp() {
+        signingService = jwtService(LIFETIME);
+        cachingService = jwtService(Duration.ofMinutes(1));
+    }
+
+    @Benchmark
+    public String userToken() {
+        return cachingService.generateUserToken(USER);
+    }
+
+    @Benchmark
+    public String signedPerCall() {
+        return signingService.generateServiceToken();
+    }
+
+    @Benchmark
+    public String cached() {
+        return cachingService.generateServiceToken();
+    }
+
+    private static JwtService jwtService(Duration refreshBefore) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "benchmark-secret-benchmark-secret-benchmark-secret");
+        ReflectionTestUtils.setField(jwtService, "issuer", "benchmark");
+        ReflectionTestUtils.setField(jwtService, "serviceTokenLifetime", LIFETIME);
+        ReflectionTestUtils.setField(jwtService, "serviceTokenRefreshBefore", refreshBefore);
+        return jwtService;
+    }
+}
@@ -1,8 +1,11 @@
+import com.google.protobuf.gradle.id
+
 plugins {
     id("java-library")
+    id("com.google.protobuf") version "0.9.4"
 }
 
-java.sourceCompatibility = JavaVersion.VERSION_17
+java.sourceCompatibility = JavaVersion.VERSION_21
 
 repositories {
     mavenCentral()
@@ -13,8 +16,42 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web:3.0.4")
     implementation("org.springframework.boot:spring-boot-starter-validation:3.0.4")
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
+    compileOnly("org.springframework.boot:spring-boot-starter-webflux:3.0.4")
+    compileOnly("io.micrometer:micrometer-core:1.10.5")
+    compileOnly("org.apache.tomcat:annotations-api:6.0.53")
 
     api("io.jsonwebtoken:jjwt-impl:0.11.5")
     api("io.jsonwebtoken:jjwt-jackson:0.11.5")
+    api("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.14.2")
+    api("io.grpc:grpc-protobuf:1.58.0")
+    api("io.grpc:grpc-stub:1.58.0")
+    api("io.grpc:grpc-netty-shaded:1.58.0")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test:3.0.4")
+    testImplementation("org.springframework.boot:spring-boot-starter-webflux:3.0.4")
+    testImplementation("io.micrometer:micrometer-core:1.10.5")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.9.2")
+}
 
-}
\ No newline at end of file
+tasks.test {
+    useJUnitPlatform()
+}
+
+// The internal gRPC API of the services, generated from src/main/proto.
+protobuf {
+    protoc {
+        artifact = "com.google.protobuf:protoc:3.24.4"
+    }
+    plugins {
+        id("grpc") {
+            artifact = "io.grpc:protoc-gen-grpc-java:1.58.0"
+        }
+    }
+    generateProtoTasks {
+        all().forEach {
+            it.plugins {
+                id("grpc")
+            }
+        }
+    }
+}
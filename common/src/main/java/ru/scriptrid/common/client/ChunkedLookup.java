@@ -0,0 +1,44 @@
+package ru.scriptrid.common.client;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Splits a lookup of many ids for a batch endpoint into calls for at most {@code services.client.batch.chunk-size}
+ * ids each, of which up to {@code services.client.batch.concurrency} are made at once. Every id is asked for once.
+ */
+@Component
+@ConditionalOnClass(WebClient.class)
+public class ChunkedLookup {
+
+    private final int chunkSize;
+
+    private final int concurrency;
+
+    public ChunkedLookup(@Value("${services.client.batch.chunk-size:1000}") int chunkSize,
+                         @Value("${services.client.batch.concurrency:4}") int concurrency) {
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @param call looks up one chunk of ids
+     * @return what the calls found, in no particular order
+     */
+    public <T> Flux<T> lookUp(Collection<Long> ids, Function<List<Long>, ? extends Publisher<T>> call) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        int chunks = (distinct.size() + chunkSize - 1) / chunkSize;
+        return Flux.range(0, chunks)
+                .flatMap(chunk -> call.apply(distinct.subList(chunk * chunkSize,
+                        Math.min(distinct.size(), (chunk + 1) * chunkSize))), concurrency);
+    }
+}
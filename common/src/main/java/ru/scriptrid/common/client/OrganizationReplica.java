@@ -0,0 +1,378 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.dto.OrganizationEventDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A local copy of the organizations, kept up to date from the change feed of organization-service
+ * ({@code /api/organization/events}), so the status of an organization does not take a call on every read. It is
+ * enabled with {@code services.organization.feed.enabled}.
+ * <p>
+ * Every entry carries the sequence of the feed it is known to be current at: an event replaces it only when newer,
+ * and the answer of a call is {@link #remember remembered} with the {@link #version} taken before the call, so it
+ * never overwrites an event that came in meanwhile. While the feed is disconnected, and until it has caught up after
+ * reconnecting, the replica answers nothing, so reads fall back to calls rather than see stale organizations. It
+ * reconnects after {@code services.organization.feed.reconnect-delay} from the last event it got; a {@code reset}
+ * from the feed, when it was too far behind, drops everything.
+ * <p>
+ * With {@code services.organization.cache.warm-up} the replica loads the listing of the organizations once it has
+ * caught up after a reset, so reads do not have to miss first. At most {@code services.organization.cache.max-size}
+ * organizations are kept, the ones least recently read or loaded are dropped first. An entry is not answered after
+ * {@code services.organization.cache.ttl}, a bound on a lost event; every {@code services.organization.cache.refresh-interval}
+ * the entries older than {@code services.organization.cache.refresh-after} that were read since they were loaded
+ * are loaded again one by one in the background, so the entries in use never expire and the others run out.
+ */
+@Component
+@ConditionalOnClass(WebClient.class)
+@ConditionalOnProperty(name = "services.organization.feed.enabled", havingValue = "true")
+public class OrganizationReplica implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrganizationReplica.class);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<OrganizationEventDto>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private static final ParameterizedTypeReference<List<OrganizationDto>> LISTING_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private static final int REFRESH_CONCURRENCY = 8;
+
+    private final WebClient webClient;
+
+    private final JwtService jwtService;
+
+    private final Duration reconnectDelay;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final long refreshAfterMillis;
+
+    private final Duration refreshInterval;
+
+    private final boolean warmUp;
+
+    private final Map<Long, Entry> organizations = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter refreshes;
+
+    private final Counter refreshFailures;
+
+    private volatile long lastSequence = -1;
+
+    /**
+     * Sequence of the last reset; answers of calls made before it may have missed events and are not remembered.
+     */
+    private volatile long resetSequence = -1;
+
+    private volatile boolean live;
+
+    private volatile boolean warmUpPending;
+
+    private volatile long lastHeardAt = System.currentTimeMillis();
+
+    @Nullable
+    private volatile Disposable subscription;
+
+    @Nullable
+    private volatile Disposable refresher;
+
+    public OrganizationReplica(@Value("${services.organization.uri}") String organizationServiceUri,
+                               ServiceWebClientFactory clientFactory,
+                               JwtService jwtService,
+                               MeterRegistry meterRegistry,
+                               @Value("${services.organization.feed.reconnect-delay:1s}") Duration reconnectDelay,
+                               @Value("${services.organization.cache.max-size:10000}") int maxSize,
+                               @Value("${services.organization.cache.ttl:10m}") Duration ttl,
+                               @Value("${services.organization.cache.refresh-after:8m}") Duration refreshAfter,
+                               @Value("${services.organization.cache.refresh-interval:30s}") Duration refreshInterval,
+                               @Value("${services.organization.cache.warm-up:false}") boolean warmUp) {
+        this.webClient = clientFactory.create("organization-service", organizationServiceUri);
+        this.jwtService = jwtService;
+        this.reconnectDelay = reconnectDelay;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAfterMillis = refreshAfter.toMillis();
+        this.refreshInterval = refreshInterval;
+        this.warmUp = warmUp;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.refreshes = Counter.builder("services.organization.replica.refreshes")
+                .description("Organizations loaded again before they expired")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("services.organization.replica.refresh.failures")
+                .description("Background loads of organizations that failed")
+                .register(meterRegistry);
+        Gauge.builder("services.organization.replica.size", organizations, Map::size)
+                .description("Organizations in the local replica")
+                .register(meterRegistry);
+        Gauge.builder("services.organization.replica.live", this, replica -> replica.live ? 1 : 0)
+                .description("Whether the replica follows the change feed")
+                .register(meterRegistry);
+        Gauge.builder("services.organization.replica.hit.ratio", this, OrganizationReplica::hitRatio)
+                .description("Share of the lookups answered by the replica since the start")
+                .register(meterRegistry);
+        Gauge.builder("services.organization.replica.staleness", this,
+                        replica -> (System.currentTimeMillis() - replica.lastHeardAt) / 1000.0)
+                .description("Time since the replica last heard from the change feed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("services.organization.replica.lookups")
+                .description("Lookups of organizations in the local replica")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * @return the organization, or null when it is not known, expired or the replica is not live
+     */
+    @Nullable
+    public OrganizationDto get(long id) {
+        Entry entry = live ? organizations.get(id) : null;
+        long now = System.currentTimeMillis();
+        if (entry == null || now - entry.loadedAt >= ttlMillis) {
+            misses.increment();
+            return null;
+        }
+        entry.readAt = now;
+        hits.increment();
+        return entry.organization;
+    }
+
+    /**
+     * The sequence of the feed the replica is at; taken before a call, it is the version to {@link #remember} the
+     * answer with.
+     */
+    public long version() {
+        return lastSequence;
+    }
+
+    public void remember(OrganizationDto organization, long version) {
+        if (live && version >= resetSequence) {
+            put(organization, version);
+        }
+    }
+
+    private void put(OrganizationDto organization, long version) {
+        if (!organizations.containsKey(organization.id()) && organizations.size() >= maxSize) {
+            evict();
+        }
+        Entry loaded = new Entry(organization, version, System.currentTimeMillis());
+        organizations.merge(organization.id(), loaded,
+                (current, next) -> current.version > next.version ? current : next);
+    }
+
+    /**
+     * Drops the expired entries, and the tenth least recently read or loaded if that did not make room.
+     */
+    private synchronized void evict() {
+        if (organizations.size() < maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        organizations.values().removeIf(entry -> now - entry.loadedAt >= ttlMillis);
+        if (organizations.size() >= maxSize) {
+            organizations.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue().readAt))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(Math.max(1, maxSize / 10))
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(organizations::remove);
+        }
+    }
+
+    @Override
+    public void start() {
+        subscription = Flux.defer(this::connect)
+                .doOnNext(this::apply)
+                .doOnError(e -> log.warn("Organization feed failed, reconnecting: {}", e.toString()))
+                .doFinally(signal -> live = false)
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, reconnectDelay))
+                .repeatWhen(completed -> completed.delayElements(reconnectDelay))
+                .subscribe();
+        refresher = Flux.interval(refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    private Flux<ServerSentEvent<OrganizationEventDto>> connect() {
+        return webClient.get()
+                .uri(lastSequence < 0 ? "/api/organization/events" : "/api/organization/events?after={after}",
+                        lastSequence)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE);
+    }
+
+    private void apply(ServerSentEvent<OrganizationEventDto> event) {
+        lastHeardAt = System.currentTimeMillis();
+        if (event.event() == null) {
+            return;
+        }
+        switch (event.event()) {
+            case "organization" -> {
+                OrganizationEventDto change = event.data();
+                if (change != null) {
+                    put(change.organization(), change.sequence());
+                    lastSequence = change.sequence();
+                }
+            }
+            case "reset" -> {
+                live = false;
+                organizations.clear();
+                lastSequence = Long.parseLong(event.id());
+                resetSequence = lastSequence;
+                warmUpPending = warmUp;
+                log.info("Organization replica was reset at {}", lastSequence);
+            }
+            case "caught-up" -> {
+                live = true;
+                log.info("Organization replica caught up at {}", lastSequence);
+                if (warmUpPending) {
+                    warmUpPending = false;
+                    load().subscribe();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Remembers the listing of the organizations.
+     */
+    private Mono<Void> load() {
+        long version = lastSequence;
+        return webClient.get()
+                .uri("/api/organization/")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToMono(LISTING_TYPE)
+                .doOnNext(listing -> {
+                    listing.forEach(organization -> remember(organization, version));
+                    log.info("Organization replica loaded {} organizations at {}", listing.size(), version);
+                })
+                .onErrorResume(e -> {
+                    refreshFailures.increment();
+                    log.warn("Could not load the organizations: {}", e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> refresh() {
+        if (!live) {
+            return Mono.empty();
+        }
+        long now = System.currentTimeMillis();
+        organizations.values().removeIf(entry -> now - entry.loadedAt >= ttlMillis);
+        return Flux.fromIterable(List.copyOf(organizations.entrySet()))
+                .filter(entry -> isDue(entry.getValue(), now) && entry.getValue().readAt > entry.getValue().loadedAt)
+                .flatMap(entry -> reload(entry.getKey()), REFRESH_CONCURRENCY)
+                .then();
+    }
+
+    private boolean isDue(Entry entry, long now) {
+        return now - entry.loadedAt >= refreshAfterMillis;
+    }
+
+    private Mono<Void> reload(long id) {
+        long version = lastSequence;
+        return webClient.get()
+                .uri("/api/organization/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToMono(OrganizationDto.class)
+                .doOnNext(organization -> {
+                    remember(organization, version);
+                    refreshes.increment();
+                })
+                .onErrorResume(e -> {
+                    if (e instanceof WebClientResponseException response
+                            && response.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+                        organizations.remove(id);
+                    } else {
+                        refreshFailures.increment();
+                        log.debug("Could not load organization {} again: {}", id, e.toString());
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void stop() {
+        for (Disposable current : new Disposable[]{subscription, refresher}) {
+            if (current != null) {
+                current.dispose();
+            }
+        }
+        live = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private static final class Entry {
+        private final OrganizationDto organization;
+        private final long version;
+        private final long loadedAt;
+        private volatile long readAt;
+
+        private Entry(OrganizationDto organization, long version, long loadedAt) {
+            this.organization = organization;
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.readAt = loadedAt;
+        }
+    }
+}
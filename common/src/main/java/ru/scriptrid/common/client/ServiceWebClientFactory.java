@@ -0,0 +1,136 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds the {@link WebClient}s the web adapters call the other services with. They share one connection pool
+ * sized by {@code services.client.max-connections}, whose pending acquires wait up to
+ * {@code services.client.pending-acquire-timeout} instead of being rejected, and whose idle keep-alive connections
+ * are closed after {@code services.client.max-idle-time}. Connecting and waiting for the response headers are
+ * bounded by {@code services.client.connect-timeout} and {@code services.client.response-timeout}. With
+ * {@code services.client.http2} the clients upgrade to cleartext HTTP/2 where the target allows it
+ * ({@code server.http2.enabled}).
+ * <p>
+ * With {@code services.client.smile} responses are asked for in Smile, Jackson's binary JSON, which the services
+ * produce for {@code Accept: application/x-jackson-smile} next to JSON. It is smaller and, as dates and decimals are
+ * not written as text, much cheaper to read; a service that cannot produce it still answers in JSON. Request
+ * bodies stay JSON.
+ * <p>
+ * Every exchange is timed in {@code services.client.requests}, tagged with the target service, the URI template
+ * it was made with, the method and the status, so adapters should pass variables to
+ * {@code uri(template, variables)} rather than concatenate them.
+ */
+@Component
+@ConditionalOnClass(WebClient.class)
+public class ServiceWebClientFactory implements DisposableBean {
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private static final String SMILE_THEN_JSON = "application/x-jackson-smile, application/json;q=0.9";
+
+    private final WebClient.Builder builder;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient httpClient;
+
+    private final boolean smile;
+
+    public ServiceWebClientFactory(WebClient.Builder builder,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${services.client.max-connections:500}") int maxConnections,
+                                   @Value("${services.client.pending-acquire-timeout:30s}") Duration pendingAcquireTimeout,
+                                   @Value("${services.client.max-idle-time:30s}") Duration maxIdleTime,
+                                   @Value("${services.client.connect-timeout:2s}") Duration connectTimeout,
+                                   @Value("${services.client.response-timeout:10s}") Duration responseTimeout,
+                                   @Value("${services.client.http2:false}") boolean http2,
+                                   @Value("${services.client.smile:true}") boolean smile) {
+        this.builder = builder;
+        this.meterRegistry = meterRegistry;
+        this.smile = smile;
+        this.connectionProvider = ConnectionProvider.builder("services")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout)
+                .protocol(http2
+                        ? new HttpProtocol[]{HttpProtocol.HTTP11, HttpProtocol.H2C}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11});
+    }
+
+    /**
+     * @param target name of the called service, the {@code target} tag of the timers
+     */
+    public WebClient create(String target, String baseUri) {
+        WebClient.Builder client = builder.clone()
+                .baseUrl(baseUri)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(timed(target));
+        if (smile) {
+            client.defaultHeader(HttpHeaders.ACCEPT, SMILE_THEN_JSON);
+        }
+        return client.build();
+    }
+
+    /**
+     * Every subscription, a retry included, is timed once: the status is taken from the response or the error, and
+     * an exchange that ends without either was cancelled.
+     */
+    private ExchangeFilterFunction timed(String target) {
+        return (request, next) -> Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicReference<String> status = new AtomicReference<>("CANCELLED");
+            AtomicBoolean stopped = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> status.set(String.valueOf(response.statusCode().value())))
+                    .doOnError(e -> status.set(e.getClass().getSimpleName()))
+                    .doFinally(signal -> {
+                        if (stopped.compareAndSet(false, true)) {
+                            sample.stop(timer(target, request, status.get()));
+                        }
+                    });
+        });
+    }
+
+    private Timer timer(String target, ClientRequest request, String status) {
+        return Timer.builder("services.client.requests")
+                .description("Calls to other services")
+                .tag("target", target)
+                .tag("endpoint", request.attribute(URI_TEMPLATE_ATTRIBUTE).map(String.class::cast).orElse("none"))
+                .tag("method", request.method().name())
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+}
@@ -0,0 +1,258 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the users other services look up to check whether they are frozen or deleted, so the same user is not
+ * asked for from user-service on every request. It is enabled with {@code services.user.cache.enabled}.
+ * <p>
+ * Users are loaded with the service token and shared by all callers; concurrent lookups of a user that is not cached
+ * wait for one call instead of making their own. Entries are answered for {@code services.user.cache.ttl} and only
+ * while the cache follows the feed of user-service ({@code /api/user/events}), which drops a user as soon as it is
+ * frozen, unfrozen or deleted. The feed keeps no history, so everything cached is dropped when it (re)subscribes, and
+ * a call whose answer may predate an event that came in meanwhile is not cached. At most
+ * {@code services.user.cache.max-size} users are kept.
+ */
+@Component
+@ConditionalOnClass(WebClient.class)
+@ConditionalOnProperty(name = "services.user.cache.enabled", havingValue = "true")
+public class UserStatusCache implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatusCache.class);
+
+    private static final ParameterizedTypeReference<ServerSentEvent<UserDto>> EVENT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+
+    private final JwtService jwtService;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final Duration reconnectDelay;
+
+    private final Map<Long, CachedUser> users = new ConcurrentHashMap<>();
+
+    private final Map<Long, CompletableFuture<UserDto>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the events and subscriptions, so a call can tell whether one came in while it was made. An event is
+     * counted before it drops anything, so a call that sees the count unchanged after caching its answer is safe.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter joined;
+
+    private volatile boolean subscribed;
+
+    @Nullable
+    private volatile Disposable subscription;
+
+    public UserStatusCache(@Value("${services.user.uri}") String userServiceUri,
+                           ServiceWebClientFactory clientFactory,
+                           JwtService jwtService,
+                           MeterRegistry meterRegistry,
+                           @Value("${services.user.cache.max-size:10000}") int maxSize,
+                           @Value("${services.user.cache.ttl:30s}") Duration ttl,
+                           @Value("${services.user.cache.reconnect-delay:1s}") Duration reconnectDelay) {
+        this.webClient = clientFactory.create("user-service", userServiceUri);
+        this.jwtService = jwtService;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.reconnectDelay = reconnectDelay;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.joined = lookups(meterRegistry, "joined");
+        Gauge.builder("services.user.cache.size", users, Map::size)
+                .description("Users in the status cache")
+                .register(meterRegistry);
+        Gauge.builder("services.user.cache.subscribed", this, cache -> cache.subscribed ? 1 : 0)
+                .description("Whether the status cache follows the user feed")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("services.user.cache.lookups")
+                .description("Lookups of users in the status cache; joined ones waited for the call of another")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the user, or null when user-service does not know it
+     */
+    @Nullable
+    public UserDto get(long id) {
+        long now = System.currentTimeMillis();
+        CachedUser cached = subscribed ? users.get(id) : null;
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return cached.user();
+        }
+        CompletableFuture<UserDto> call = new CompletableFuture<>();
+        CompletableFuture<UserDto> running = loading.putIfAbsent(id, call);
+        if (running != null) {
+            joined.increment();
+            return join(running);
+        }
+        misses.increment();
+        try {
+            long invalidationsBefore = invalidations.get();
+            UserDto user = fetch(id);
+            if (user != null && subscribed && invalidations.get() == invalidationsBefore) {
+                CachedUser entry = put(user, now);
+                // An event counted after the check above may have been applied before the put, so it missed the entry
+                if (invalidations.get() != invalidationsBefore) {
+                    users.remove(id, entry);
+                }
+            }
+            call.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, call);
+        }
+    }
+
+    private static UserDto join(CompletableFuture<UserDto> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Nullable
+    private UserDto fetch(long id) {
+        return webClient.get()
+                .uri("/api/user/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToMono(UserDto.class)
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode().equals(HttpStatus.NOT_FOUND) ? Mono.empty() : Mono.error(e))
+                .block();
+    }
+
+    private CachedUser put(UserDto user, long now) {
+        if (users.size() >= maxSize) {
+            evict(now);
+        }
+        CachedUser entry = new CachedUser(user, now + ttlMillis);
+        users.put(user.id(), entry);
+        return entry;
+    }
+
+    /**
+     * Drops the expired users, and all the others if that did not make room.
+     */
+    private synchronized void evict(long now) {
+        if (users.size() < maxSize) {
+            return;
+        }
+        users.values().removeIf(user -> user.expiresAt() <= now);
+        if (users.size() >= maxSize) {
+            users.clear();
+        }
+    }
+
+    @Override
+    public void start() {
+        subscription = Flux.defer(this::connect)
+                .doOnNext(this::apply)
+                .doOnError(e -> log.warn("User feed failed, reconnecting: {}", e.toString()))
+                .doFinally(signal -> subscribed = false)
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, reconnectDelay))
+                .repeatWhen(completed -> completed.delayElements(reconnectDelay))
+                .subscribe();
+    }
+
+    private Flux<ServerSentEvent<UserDto>> connect() {
+        return webClient.get()
+                .uri("/api/user/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToFlux(EVENT_TYPE);
+    }
+
+    private void apply(ServerSentEvent<UserDto> event) {
+        if (event.event() == null) {
+            return;
+        }
+        switch (event.event()) {
+            case "user" -> {
+                UserDto user = event.data();
+                if (user != null) {
+                    invalidations.incrementAndGet();
+                    users.remove(user.id());
+                }
+            }
+            case "subscribed" -> {
+                invalidations.incrementAndGet();
+                users.clear();
+                subscribed = true;
+                log.info("User status cache subscribed to the user feed");
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        subscribed = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = subscription;
+        return current != null && !current.isDisposed();
+    }
+
+    private record CachedUser(UserDto user, long expiresAt) {
+    }
+}
@@ -0,0 +1,12 @@
+package ru.scriptrid.common.dto;
+
+/**
+ * A change of an organization's status in the feed of organization-service, with the organization as it was right
+ * after the change.
+ */
+public record OrganizationEventDto(
+        long sequence,
+        OrganizationEventType type,
+        OrganizationDto organization
+) {
+}
@@ -0,0 +1,9 @@
+package ru.scriptrid.common.dto;
+
+public enum OrganizationEventType {
+    FROZEN,
+    UNFROZEN,
+    DELETED,
+    OWNER_CHANGED,
+    EDITED
+}
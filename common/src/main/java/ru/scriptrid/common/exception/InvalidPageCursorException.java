@@ -0,0 +1,4 @@
+package ru.scriptrid.common.exception;
+
+public class InvalidPageCursorException extends RuntimeException {
+}
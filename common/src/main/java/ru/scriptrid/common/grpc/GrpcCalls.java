@@ -0,0 +1,95 @@
+package ru.scriptrid.common.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.scriptrid.common.exception.*;
+import ru.scriptrid.common.grpc.api.Failure;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the service calls behind the gRPC handlers and turns their business exceptions into statuses, the way the
+ * exception handlers of the controllers turn them into HTTP statuses: "not found" into {@code NOT_FOUND}, the
+ * rejected requests into {@code FAILED_PRECONDITION}.
+ */
+public final class GrpcCalls {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcCalls.class);
+
+    private GrpcCalls() {
+    }
+
+    public static <R> void unary(StreamObserver<R> responses, Supplier<R> call,
+                                 Function<RuntimeException, Status> statuses) {
+        R response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            responses.onError(statuses.apply(e).withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        responses.onNext(response);
+        responses.onCompleted();
+    }
+
+    /**
+     * Answers every request of a stream with the result of its call, or with its failure, and completes when the
+     * client does.
+     */
+    public static <Q, R> StreamObserver<Q> eachAnswered(StreamObserver<R> responses, Function<Q, R> call,
+                                                        BiFunction<Q, Failure, R> failed,
+                                                        Function<RuntimeException, Status> statuses) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(Q request) {
+                R response;
+                try {
+                    response = call.apply(request);
+                } catch (RuntimeException e) {
+                    response = failed.apply(request, Failure.newBuilder()
+                            .setCode(statuses.apply(e).getCode().value())
+                            .setMessage(String.valueOf(e.getMessage()))
+                            .build());
+                }
+                responses.onNext(response);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client cancelled the stream, there is no one left to answer.
+            }
+
+            @Override
+            public void onCompleted() {
+                responses.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * Statuses of the exceptions shared by the services; anything else is {@code INTERNAL}.
+     */
+    public static Status commonStatus(RuntimeException e) {
+        if (e instanceof StatusRuntimeException status) {
+            return status.getStatus();
+        }
+        if (e instanceof OrganizationNotFoundByIdException) {
+            return Status.NOT_FOUND;
+        }
+        if (e instanceof OrganizationAlreadyExistsException
+                || e instanceof FrozenOrganizationException
+                || e instanceof DeletedOrganizationException
+                || e instanceof InvalidOwnerException
+                || e instanceof FrozenUserException
+                || e instanceof DeletedUserException) {
+            return Status.FAILED_PRECONDITION;
+        }
+        log.error("Internal call failed", e);
+        return Status.INTERNAL;
+    }
+}
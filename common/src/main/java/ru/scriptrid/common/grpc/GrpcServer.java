@@ -0,0 +1,96 @@
+package ru.scriptrid.common.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.scriptrid.common.security.JwtVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the gRPC handlers of a service ({@link BindableService} beans) on {@code grpc.port}, next to its REST
+ * controllers. Only service tokens are accepted, see {@link ServiceTokenInterceptor}. The handlers block on the
+ * database and on other services, so every call runs on a virtual thread of its own. On shutdown the calls in
+ * progress get {@code grpc.shutdown-timeout} to finish.
+ */
+@Component
+@ConditionalOnProperty("grpc.port")
+public class GrpcServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServer.class);
+
+    private final Server server;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Duration shutdownTimeout;
+
+    private volatile boolean running;
+
+    public GrpcServer(List<BindableService> services,
+                      JwtVerifier jwtVerifier,
+                      @Value("${grpc.port}") int port,
+                      @Value("${grpc.keep-alive-time:30s}") Duration keepAliveTime,
+                      @Value("${grpc.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        ServiceTokenInterceptor serviceToken = new ServiceTokenInterceptor(jwtVerifier);
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true);
+        services.forEach(service -> builder.addService(ServerInterceptors.intercept(service, serviceToken)));
+        this.server = builder.build();
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start the gRPC server", e);
+        }
+        running = true;
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The port the server listens on; with {@code grpc.port=0} it is picked on start.
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+}
@@ -0,0 +1,164 @@
+package ru.scriptrid.common.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import ru.scriptrid.common.dto.*;
+import ru.scriptrid.common.grpc.api.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+
+/**
+ * Converts the DTOs to the messages of the internal gRPC API and back. Amounts keep their scale, times are
+ * read back in UTC, as Jackson reads them from JSON.
+ */
+public final class ProtoMapper {
+
+    private ProtoMapper() {
+    }
+
+    public static Decimal toProto(BigDecimal value) {
+        return Decimal.newBuilder()
+                .setUnscaled(ByteString.copyFrom(value.unscaledValue().toByteArray()))
+                .setScale(value.scale())
+                .build();
+    }
+
+    public static BigDecimal fromProto(Decimal value) {
+        return new BigDecimal(new BigInteger(value.getUnscaled().toByteArray()), value.getScale());
+    }
+
+    public static Timestamp toProto(ZonedDateTime time) {
+        Instant instant = time.toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+
+    public static ZonedDateTime fromProto(Timestamp time) {
+        return Instant.ofEpochSecond(time.getSeconds(), time.getNanos()).atZone(ZoneOffset.UTC);
+    }
+
+    public static Product toProto(ProductDto dto) {
+        Product.Builder product = Product.newBuilder()
+                .setId(dto.id())
+                .setProductName(dto.productName())
+                .setOrganizationId(dto.organizationId())
+                .setPrice(toProto(dto.price()))
+                .setQuantityInStock(dto.quantityInStock());
+        if (dto.description() != null) {
+            product.setDescription(dto.description());
+        }
+        if (dto.tags() != null) {
+            product.addAllTags(dto.tags());
+        }
+        if (dto.specs() != null) {
+            product.putAllSpecs(dto.specs());
+        }
+        if (dto.priceModifier() != null) {
+            product.setPriceModifier(toProto(dto.priceModifier()));
+        }
+        return product.build();
+    }
+
+    public static ProductDto fromProto(Product product) {
+        return new ProductDto(
+                product.getId(),
+                product.getProductName(),
+                product.hasDescription() ? product.getDescription() : null,
+                product.getOrganizationId(),
+                fromProto(product.getPrice()),
+                product.getQuantityInStock(),
+                new HashSet<>(product.getTagsList()),
+                product.getSpecsMap(),
+                product.hasPriceModifier() ? fromProto(product.getPriceModifier()) : null
+        );
+    }
+
+    public static User toProto(UserDto dto) {
+        return User.newBuilder()
+                .setId(dto.id())
+                .setUsername(dto.username())
+                .setEmail(dto.email())
+                .setIsAdmin(dto.isAdmin())
+                .setIsFrozen(dto.isFrozen())
+                .setIsDeleted(dto.isDeleted())
+                .build();
+    }
+
+    public static UserDto fromProto(User user) {
+        return new UserDto(user.getId(), user.getUsername(), user.getEmail(), user.getIsAdmin(),
+                user.getIsFrozen(), user.getIsDeleted());
+    }
+
+    public static Organization toProto(OrganizationDto dto) {
+        Organization.Builder organization = Organization.newBuilder()
+                .setId(dto.id())
+                .setName(dto.name())
+                .setIsFrozen(dto.isFrozen())
+                .setIsDeleted(dto.isDeleted())
+                .setOwnerId(dto.ownerId());
+        if (dto.logoUrl() != null) {
+            organization.setLogoUrl(dto.logoUrl());
+        }
+        if (dto.description() != null) {
+            organization.setDescription(dto.description());
+        }
+        return organization.build();
+    }
+
+    public static OrganizationDto fromProto(Organization organization) {
+        return new OrganizationDto(
+                organization.getId(),
+                organization.getName(),
+                organization.getIsFrozen(),
+                organization.getIsDeleted(),
+                organization.hasLogoUrl() ? organization.getLogoUrl() : null,
+                organization.getOwnerId(),
+                organization.hasDescription() ? organization.getDescription() : null
+        );
+    }
+
+    public static TransferRequest toProto(TransactionCreateDto dto) {
+        return TransferRequest.newBuilder()
+                .setCustomerId(dto.customerId())
+                .setSellerId(dto.sellerId())
+                .setTotal(toProto(dto.total()))
+                .setSellersIncome(toProto(dto.sellersIncome()))
+                .build();
+    }
+
+    public static TransactionCreateDto fromProto(TransferRequest request) {
+        return new TransactionCreateDto(request.getCustomerId(), request.getSellerId(),
+                fromProto(request.getTotal()), fromProto(request.getSellersIncome()));
+    }
+
+    public static Transaction toProto(TransactionDto dto) {
+        return Transaction.newBuilder()
+                .setId(dto.id())
+                .setSourceId(dto.sourceId())
+                .setDestinationId(dto.destinationId())
+                .setSourceDelta(toProto(dto.sourceDelta()))
+                .setDestinationDelta(toProto(dto.destinationDelta()))
+                .setIsReturn(dto.isReturn())
+                .setTimeOfTransaction(toProto(dto.timeOfTransaction()))
+                .build();
+    }
+
+    public static TransactionDto fromProto(Transaction transaction) {
+        return new TransactionDto(
+                transaction.getId(),
+                transaction.getSourceId(),
+                transaction.getDestinationId(),
+                fromProto(transaction.getSourceDelta()),
+                fromProto(transaction.getDestinationDelta()),
+                transaction.getIsReturn(),
+                fromProto(transaction.getTimeOfTransaction())
+        );
+    }
+}
@@ -0,0 +1,126 @@
+package ru.scriptrid.common.grpc;
+
+import io.grpc.*;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the channels the internal gRPC API of the other services is called through. A channel is one HTTP/2
+ * connection that all calls to the target share, kept alive with pings every {@code services.grpc.keep-alive-time};
+ * unary calls without a deadline of their own get {@code services.grpc.deadline}, streams last as long as their
+ * batch. Every call carries the service token of {@link JwtService} and is timed in {@code services.client.requests}
+ * like the calls of the web adapters, with the gRPC method as the endpoint and {@code GRPC} as the method.
+ */
+@Component
+public class ServiceChannelFactory implements DisposableBean {
+
+    private final JwtService jwtService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration keepAliveTime;
+
+    private final Duration deadline;
+
+    private final List<ManagedChannel> channels = new CopyOnWriteArrayList<>();
+
+    public ServiceChannelFactory(JwtService jwtService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${services.grpc.keep-alive-time:30s}") Duration keepAliveTime,
+                                 @Value("${services.grpc.deadline:10s}") Duration deadline) {
+        this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
+        this.keepAliveTime = keepAliveTime;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param target  name of the called service, the {@code target} tag of the timers
+     * @param address {@code host:port} of its gRPC server
+     */
+    public Channel create(String target, String address) {
+        ManagedChannel channel = NettyChannelBuilder.forTarget(address)
+                .usePlaintext()
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveWithoutCalls(true)
+                .build();
+        channels.add(channel);
+        return ClientInterceptors.intercept(channel, serviceToken(), timed(target));
+    }
+
+    private ClientInterceptor serviceToken() {
+        return new ClientInterceptor() {
+            @Override
+            public <Q, R> ClientCall<Q, R> interceptCall(MethodDescriptor<Q, R> method, CallOptions options,
+                                                         Channel next) {
+                CallOptions withDeadline = options.getDeadline() == null
+                        && method.getType() == MethodDescriptor.MethodType.UNARY
+                        ? options.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                        : options;
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, withDeadline)) {
+                    @Override
+                    public void start(Listener<R> responseListener, Metadata headers) {
+                        headers.put(ServiceTokenInterceptor.AUTHORIZATION,
+                                "Bearer " + jwtService.generateServiceToken());
+                        super.start(responseListener, headers);
+                    }
+                };
+            }
+        };
+    }
+
+    private ClientInterceptor timed(String target) {
+        return new ClientInterceptor() {
+            @Override
+            public <Q, R> ClientCall<Q, R> interceptCall(MethodDescriptor<Q, R> method, CallOptions options,
+                                                         Channel next) {
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, options)) {
+                    @Override
+                    public void start(Listener<R> responseListener, Metadata headers) {
+                        Timer.Sample sample = Timer.start(meterRegistry);
+                        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(
+                                responseListener) {
+                            @Override
+                            public void onClose(Status status, Metadata trailers) {
+                                sample.stop(timer(target, method, status));
+                                super.onClose(status, trailers);
+                            }
+                        }, headers);
+                    }
+                };
+            }
+        };
+    }
+
+    private Timer timer(String target, MethodDescriptor<?, ?> method, Status status) {
+        return Timer.builder("services.client.requests")
+                .description("Calls to other services")
+                .tag("target", target)
+                .tag("endpoint", method.getFullMethodName())
+                .tag("method", "GRPC")
+                .tag("status", status.getCode().name())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ManagedChannel channel : channels) {
+            channel.shutdown();
+        }
+        for (ManagedChannel channel : channels) {
+            if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                channel.shutdownNow();
+            }
+        }
+    }
+}
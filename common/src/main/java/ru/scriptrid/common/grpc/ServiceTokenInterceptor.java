@@ -0,0 +1,96 @@
+package ru.scriptrid.common.grpc;
+
+import io.grpc.*;
+import io.jsonwebtoken.JwtException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.common.security.JwtVerifier;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets through the calls that carry a service token in their {@code authorization} metadata, as the REST
+ * endpoints behind {@code hasAuthority('ROLE_SERVICE')} do, and runs the handlers with the token in the
+ * {@link SecurityContextHolder}, so the services forward it the way they forward it from a request.
+ */
+class ServiceTokenInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final JwtVerifier jwtVerifier;
+
+    ServiceTokenInterceptor(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                       ServerCallHandler<Q, R> next) {
+        String authHeader = headers.get(AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return refuse(call, Status.UNAUTHENTICATED.withDescription("No service token"));
+        }
+        JwtAuthenticationToken token;
+        try {
+            token = jwtVerifier.verify(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return refuse(call, Status.UNAUTHENTICATED.withDescription("Invalid JWT token"));
+        }
+        if (!token.isService()) {
+            return refuse(call, Status.PERMISSION_DENIED.withDescription("Not a service token"));
+        }
+        ServerCall.Listener<Q> listener = withToken(token, () -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(Q message) {
+                withToken(token, () -> {
+                    super.onMessage(message);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onHalfClose() {
+                withToken(token, () -> {
+                    super.onHalfClose();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onCancel() {
+                withToken(token, () -> {
+                    super.onCancel();
+                    return null;
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                withToken(token, () -> {
+                    super.onComplete();
+                    return null;
+                });
+            }
+        };
+    }
+
+    private static <T> T withToken(JwtAuthenticationToken token, Supplier<T> callback) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(token);
+        SecurityContextHolder.setContext(context);
+        try {
+            return callback.get();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static <Q, R> ServerCall.Listener<Q> refuse(ServerCall<Q, R> call, Status status) {
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
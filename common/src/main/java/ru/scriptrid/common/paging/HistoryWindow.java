@@ -0,0 +1,72 @@
+package ru.scriptrid.common.paging;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.scriptrid.common.exception.InvalidPageCursorException;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * The rows of a history page, newest first: those at or after {@code from} and before the cursor
+ * ({@code beforeTime}, {@code beforeId}) in (time, id) order. Rows of equal time are told apart by id, so paging
+ * through them skips and repeats nothing. A query asks for {@link #limit()} rows, one more than the page, to tell
+ * whether another page follows.
+ */
+public record HistoryWindow(ZonedDateTime from, ZonedDateTime beforeTime, long beforeId, int size) {
+
+    public static final int DEFAULT_SIZE = 50;
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryWindow.class);
+
+    private static final ZonedDateTime LOWER_BOUND = ZonedDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final ZonedDateTime UPPER_BOUND = ZonedDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    /**
+     * @param to         excludes the rows at or after it, when it comes before the cursor
+     * @param beforeTime the cursor returned with the previous page; it is given with {@code beforeId} or not at all
+     * @throws InvalidPageCursorException when only half of the cursor is given
+     */
+    public static HistoryWindow of(@Nullable ZonedDateTime from, @Nullable ZonedDateTime to,
+                                   @Nullable ZonedDateTime beforeTime, @Nullable Long beforeId,
+                                   @Nullable Integer size) {
+        if ((beforeTime == null) != (beforeId == null)) {
+            log.warn("Page cursor has beforeTime \"{}\" and beforeId \"{}\"", beforeTime, beforeId);
+            throw new InvalidPageCursorException();
+        }
+        ZonedDateTime windowBeforeTime = beforeTime == null ? UPPER_BOUND : beforeTime;
+        long windowBeforeId = beforeId == null ? Long.MAX_VALUE : beforeId;
+        if (to != null && to.isBefore(windowBeforeTime)) {
+            windowBeforeTime = to;
+            windowBeforeId = Long.MAX_VALUE;
+        }
+        return new HistoryWindow(from == null ? LOWER_BOUND : from, windowBeforeTime, windowBeforeId,
+                size == null ? DEFAULT_SIZE : size);
+    }
+
+    public int limit() {
+        return size + 1;
+    }
+
+    /**
+     * Builds the page from the rows found for {@link #limit()}, with the cursor of the next page if there is one.
+     */
+    public <E, P> P page(List<E> rows, Function<E, ZonedDateTime> time, ToLongFunction<E> id,
+                         PageFactory<E, P> pageFactory) {
+        if (rows.size() <= size) {
+            return pageFactory.create(rows, null, null);
+        }
+        List<E> page = rows.subList(0, size);
+        E last = page.get(size - 1);
+        return pageFactory.create(page, time.apply(last), id.applyAsLong(last));
+    }
+
+    public interface PageFactory<E, P> {
+        P create(List<E> rows, @Nullable ZonedDateTime nextBeforeTime, @Nullable Long nextBeforeId);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import ru.scriptrid.common.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 
 @Service
@@ -21,6 +22,14 @@ public class JwtService {
     @Value("${jwt.issuer}")
     private String issuer;
 
+    @Value("${jwt.service-token.lifetime:10m}")
+    private Duration serviceTokenLifetime;
+
+    @Value("${jwt.service-token.refresh-before:1m}")
+    private Duration serviceTokenRefreshBefore;
+
+    private volatile ServiceToken serviceToken;
+
 
     public String generateUserToken(UserDto dto) throws IllegalArgumentException, MalformedJwtException {
 
@@ -36,16 +45,41 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Returns the token this service calls the others with. It expires after {@code jwt.service-token.lifetime} and
+     * is reused until {@code jwt.service-token.refresh-before} ahead of that, so outbound calls do not sign a token
+     * each and never send one about to expire.
+     */
     public String generateServiceToken() throws IllegalArgumentException, MalformedJwtException {
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        ServiceToken token = serviceToken;
+        if (token == null || now >= token.refreshAt()) {
+            token = refreshServiceToken(now);
+        }
+        return token.jwt();
+    }
+
+    private synchronized ServiceToken refreshServiceToken(long now) {
+        ServiceToken token = serviceToken;
+        if (token != null && now < token.refreshAt()) {
+            return token;
+        }
+        long expiresAt = now + serviceTokenLifetime.toMillis();
+        String jwt = Jwts.builder()
                 .claim("id", -1)
                 .claim("username", issuer)
                 .claim("email", issuer + "@shop.io")
                 .claim("isAdmin", true)
                 .claim("isService", true)
-                .setIssuedAt(new Date())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(expiresAt))
                 .setIssuer(issuer)
                 .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
                 .compact();
+        serviceToken = new ServiceToken(jwt, expiresAt - serviceTokenRefreshBefore.toMillis());
+        return serviceToken;
+    }
+
+    private record ServiceToken(String jwt, long refreshAt) {
     }
 }
@@ -0,0 +1,107 @@
+package ru.scriptrid.common.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies bearer tokens and turns them into {@link JwtAuthenticationToken}s. The parser and its HMAC key are built
+ * once; expired tokens are refused, allowing {@code jwt.clock-skew} between the clocks of the services.
+ * Verified tokens are remembered by the SHA-256 digest of the token until their {@code exp}, but for no longer than
+ * {@code jwt.cache.ttl}, so a client sending the same token again skips signature verification and claim parsing.
+ * At most {@code jwt.cache.max-size} tokens are kept; 0 disables the cache.
+ * Servlet-free, so the reactive filter of order-service-reactive uses it as well.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final long clockSkewMillis;
+
+    private final Map<ByteBuffer, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public JwtVerifier(@Value("${jwt.secretcode}") String secret,
+                       @Value("${jwt.cache.max-size:10000}") int maxSize,
+                       @Value("${jwt.cache.ttl:5m}") Duration ttl,
+                       @Value("${jwt.clock-skew:30s}") Duration clockSkew) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                .build();
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clockSkewMillis = clockSkew.toMillis();
+    }
+
+    public JwtAuthenticationToken verify(String jwt) throws JwtException {
+        if (maxSize <= 0) {
+            return parse(jwt);
+        }
+        ByteBuffer key = digest(jwt);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.token();
+        }
+
+        Claims claims = parser.parseClaimsJws(jwt).getBody();
+        JwtAuthenticationToken token = new JwtAuthenticationToken(claims, jwt);
+        long expiresAt = now + ttlMillis;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime() + clockSkewMillis);
+        }
+        if (verified.size() >= maxSize) {
+            evict(now);
+        }
+        verified.put(key, new VerifiedToken(token, expiresAt));
+        return token;
+    }
+
+    private JwtAuthenticationToken parse(String jwt) {
+        return new JwtAuthenticationToken(parser.parseClaimsJws(jwt).getBody(), jwt);
+    }
+
+    /**
+     * Drops the expired tokens, and all the others if that did not make room; each token still in use then costs
+     * one more verification.
+     */
+    private synchronized void evict(long now) {
+        if (verified.size() < maxSize) {
+            return;
+        }
+        verified.values().removeIf(token -> token.expiresAt() <= now);
+        if (verified.size() >= maxSize) {
+            verified.clear();
+        }
+    }
+
+    private static ByteBuffer digest(String jwt) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record VerifiedToken(JwtAuthenticationToken token, long expiresAt) {
+    }
+}
@@ -0,0 +1,123 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A stub service with a server-sent event feed the test writes to, and lookups of entities by id it answers.
+ * The feed can be dropped, and new subscriptions refused, to see how a client copes with losing it.
+ */
+final class FeedStub implements AutoCloseable {
+    private final DisposableServer server;
+    private final Map<Long, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private volatile Sinks.Many<String> feed = Sinks.many().unicast().onBackpressureBuffer();
+    private volatile boolean refusing;
+    private volatile Function<Long, Mono<String>> lookup = id -> Mono.empty();
+
+    FeedStub(String feedPath, String lookupPath) {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get(feedPath, (request, response) -> {
+                            if (refusing) {
+                                return response.status(HttpStatus.SERVICE_UNAVAILABLE.value()).send();
+                            }
+                            Sinks.Many<String> subscription = Sinks.many().unicast().onBackpressureBuffer();
+                            feed = subscription;
+                            subscriptions.incrementAndGet();
+                            return response.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                                    .sendString(subscription.asFlux())
+                                    .then();
+                        })
+                        .get(lookupPath, (request, response) -> {
+                            long id = Long.parseLong(request.param("id"));
+                            lookups.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                            return lookup.apply(id)
+                                    .flatMap(body -> response
+                                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                            .sendString(Mono.just(body))
+                                            .then())
+                                    .switchIfEmpty(Mono.defer(() ->
+                                            response.status(HttpStatus.NOT_FOUND.value()).send().then()));
+                        }))
+                .bindNow();
+    }
+
+    ServiceWebClientFactory clientFactory(MeterRegistry meterRegistry) {
+        return new ServiceWebClientFactory(WebClient.builder(), meterRegistry, 10, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(30), false, false);
+    }
+
+    String uri() {
+        return "http://localhost:" + server.port();
+    }
+
+    /**
+     * Answers a lookup with the JSON body the function emits, or 404 when it emits nothing.
+     */
+    void answer(Function<Long, Mono<String>> lookup) {
+        this.lookup = lookup;
+    }
+
+    int lookups(long id) {
+        AtomicInteger count = lookups.get(id);
+        return count == null ? 0 : count.get();
+    }
+
+    int subscriptions() {
+        return subscriptions.get();
+    }
+
+    void send(String event, String id, String data) {
+        StringBuilder message = new StringBuilder("event:").append(event).append('\n');
+        if (id != null) {
+            message.append("id:").append(id).append('\n');
+        }
+        message.append("data:").append(data).append("\n\n");
+        feed.tryEmitNext(message.toString()).orThrow();
+    }
+
+    /**
+     * Ends the current subscription; while refusing, new ones are answered with 503.
+     */
+    void disconnect(boolean refuse) {
+        refusing = refuse;
+        feed.tryEmitComplete();
+    }
+
+    void accept() {
+        refusing = false;
+    }
+
+    static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,130 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static ru.scriptrid.common.client.FeedStub.await;
+
+/**
+ * Runs {@link OrganizationReplica} against a stub organization-service whose feed the test writes to.
+ */
+class OrganizationReplicaTest {
+    private static final long ORGANIZATION_ID = 1;
+    private static final long OTHER_ORGANIZATION_ID = 2;
+    private static final int MAX_SIZE = 100;
+
+    private FeedStub stub;
+    private MeterRegistry meterRegistry;
+    private OrganizationReplica replica;
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        stub = new FeedStub("/api/organization/events", "/api/organization/{id}");
+        meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateServiceToken()).thenReturn("token");
+        replica = new OrganizationReplica(stub.uri(), stub.clientFactory(meterRegistry), jwtService, meterRegistry,
+                Duration.ofMillis(50), MAX_SIZE, Duration.ofMinutes(10), Duration.ofMinutes(8), Duration.ofMinutes(1),
+                false);
+        replica.start();
+        await(() -> stub.subscriptions() == 1, "The replica did not subscribe to the feed");
+        stub.send("reset", "0", "{}");
+        stub.send("caught-up", null, "{}");
+        await(() -> live() == 1, "The replica did not catch up");
+    }
+
+    @AfterEach
+    void stop() {
+        replica.stop();
+        stub.close();
+    }
+
+    @Test
+    void eventDuringACallIsNotOverwritten() throws InterruptedException {
+        long version = replica.version();
+        stub.send("organization", null, event(1, ORGANIZATION_ID, true));
+        await(() -> replica.version() == 1, "The event was not applied");
+
+        replica.remember(organization(ORGANIZATION_ID, false), version);
+        assertTrue(replica.get(ORGANIZATION_ID).isFrozen(), "An answer older than the event replaced it");
+
+        replica.remember(organization(ORGANIZATION_ID, false), replica.version());
+        assertFalse(replica.get(ORGANIZATION_ID).isFrozen());
+    }
+
+    @Test
+    void resetDropsEverything() throws InterruptedException {
+        long version = replica.version();
+        replica.remember(organization(ORGANIZATION_ID, false), version);
+        stub.send("organization", null, event(1, OTHER_ORGANIZATION_ID, false));
+        await(() -> replica.get(OTHER_ORGANIZATION_ID) != null, "The event was not applied");
+
+        stub.send("reset", "5", "{}");
+        await(() -> live() == 0, "The reset was not applied");
+        assertNull(replica.get(ORGANIZATION_ID), "Answered while catching up after a reset");
+        stub.send("caught-up", null, "{}");
+        await(() -> live() == 1, "The replica did not catch up");
+
+        assertNull(replica.get(ORGANIZATION_ID));
+        assertNull(replica.get(OTHER_ORGANIZATION_ID));
+        replica.remember(organization(ORGANIZATION_ID, false), version);
+        assertNull(replica.get(ORGANIZATION_ID), "An answer from before the reset was remembered");
+    }
+
+    @Test
+    void nothingIsAnsweredWhileDisconnected() throws InterruptedException {
+        replica.remember(organization(ORGANIZATION_ID, false), replica.version());
+        assertNotNull(replica.get(ORGANIZATION_ID));
+
+        stub.disconnect(true);
+        await(() -> live() == 0, "The replica did not notice the feed was lost");
+        assertNull(replica.get(ORGANIZATION_ID));
+        replica.remember(organization(OTHER_ORGANIZATION_ID, false), replica.version());
+
+        stub.accept();
+        await(() -> stub.subscriptions() == 2, "The replica did not subscribe again");
+        assertNull(replica.get(ORGANIZATION_ID), "Answered before catching up after reconnecting");
+        stub.send("caught-up", null, "{}");
+        await(() -> live() == 1, "The replica did not catch up");
+        assertNotNull(replica.get(ORGANIZATION_ID));
+        assertNull(replica.get(OTHER_ORGANIZATION_ID), "An answer was remembered while disconnected");
+    }
+
+    @Test
+    void entryReadLongAgoIsEvictedBeforeNewOnes() throws InterruptedException {
+        replica.remember(organization(ORGANIZATION_ID, false), replica.version());
+        assertNotNull(replica.get(ORGANIZATION_ID));
+        Thread.sleep(20);
+        for (long id = OTHER_ORGANIZATION_ID; id <= MAX_SIZE + 1; id++) {
+            replica.remember(organization(id, false), replica.version());
+        }
+
+        assertNull(replica.get(ORGANIZATION_ID), "A new entry was dropped before one read earlier");
+        assertNotNull(replica.get(MAX_SIZE + 1));
+    }
+
+    private double live() {
+        return meterRegistry.get("services.organization.replica.live").gauge().value();
+    }
+
+    private static OrganizationDto organization(long id, boolean frozen) {
+        return new OrganizationDto(id, "organization" + id, frozen, false, null, 1, "");
+    }
+
+    private static String event(long sequence, long id, boolean frozen) {
+        return """
+                {"sequence":%d,"type":"%s","organization":{"id":%d,"name":"organization%d","isFrozen":%b,\
+                "isDeleted":false,"logoUrl":null,"ownerId":1,"description":""}}"""
+                .formatted(sequence, frozen ? "FROZEN" : "EDITED", id, id, frozen);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that every exchange is timed exactly once, however it ends.
+ */
+class ServiceWebClientFactoryTest {
+
+    @Test
+    void responseFollowedByACancelIsTimedOnce() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // The response comes, but its body never does, so the exchange is cancelled after the response
+        WebClient webClient = factory(meterRegistry, request -> Mono.fromDirect(subscriber -> {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onNext(ClientResponse.create(HttpStatus.OK).body(Flux.never()).build());
+        })).create("test-service", "http://localhost");
+
+        Mono.zip(webClient.get().uri("/api/test/{id}", 1).retrieve().bodyToMono(String.class),
+                        Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException())))
+                .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+                .block();
+
+        assertEquals(1, requests(meterRegistry));
+        assertEquals(1, meterRegistry.get("services.client.requests").tag("status", "200").timer().count());
+    }
+
+    @Test
+    void retriesAreTimedEach() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WebClient webClient = factory(meterRegistry,
+                request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .create("test-service", "http://localhost");
+
+        webClient.get().uri("/api/test/{id}", 1).retrieve().toBodilessEntity()
+                .retry(2)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+
+        assertEquals(3, requests(meterRegistry));
+        assertEquals(3, meterRegistry.get("services.client.requests").tag("status", "503").timer().count());
+    }
+
+    private static ServiceWebClientFactory factory(MeterRegistry meterRegistry, ExchangeFunction exchange) {
+        return new ServiceWebClientFactory(WebClient.builder().exchangeFunction(exchange), meterRegistry, 10,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(30), false,
+                false);
+    }
+
+    private static long requests(MeterRegistry meterRegistry) {
+        return meterRegistry.get("services.client.requests").timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.scriptrid.common.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static ru.scriptrid.common.client.FeedStub.await;
+
+/**
+ * Runs {@link UserStatusCache} against a stub user-service whose feed the test writes to.
+ */
+class UserStatusCacheTest {
+    private static final long USER_ID = 1;
+    private static final long OTHER_USER_ID = 2;
+
+    private FeedStub stub;
+    private MeterRegistry meterRegistry;
+    private UserStatusCache cache;
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        stub = new FeedStub("/api/user/events", "/api/user/{id}");
+        stub.answer(id -> Mono.just(user(id, false)));
+        meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateServiceToken()).thenReturn("token");
+        cache = new UserStatusCache(stub.uri(), stub.clientFactory(meterRegistry), jwtService, meterRegistry, 100,
+                Duration.ofMinutes(1), Duration.ofMillis(50));
+        cache.start();
+        await(() -> stub.subscriptions() == 1, "The cache did not subscribe to the feed");
+        stub.send("subscribed", null, "{}");
+        await(() -> subscribed() == 1, "The cache did not follow the feed");
+    }
+
+    @AfterEach
+    void stop() {
+        cache.stop();
+        stub.close();
+    }
+
+    @Test
+    void userIsAskedForOnceWhileCached() {
+        assertFalse(cache.get(USER_ID).isFrozen());
+        assertFalse(cache.get(USER_ID).isFrozen());
+        assertEquals(1, stub.lookups(USER_ID));
+    }
+
+    @Test
+    void eventDuringALookupIsNotOverwritten() throws Exception {
+        cache.get(OTHER_USER_ID);
+        Sinks.One<String> answer = Sinks.one();
+        stub.answer(id -> id == USER_ID ? answer.asMono() : Mono.just(user(id, false)));
+        CompletableFuture<UserDto> lookup = CompletableFuture.supplyAsync(() -> cache.get(USER_ID));
+        await(() -> stub.lookups(USER_ID) == 1, "The user was not asked for");
+
+        stub.send("user", null, user(USER_ID, true));
+        stub.send("user", null, user(OTHER_USER_ID, true));
+        await(() -> size() == 0, "The events were not applied");
+        answer.tryEmitValue(user(USER_ID, false)).orThrow();
+        assertFalse(lookup.get().isFrozen());
+
+        stub.answer(id -> Mono.just(user(id, true)));
+        assertTrue(cache.get(USER_ID).isFrozen(), "The answer given before the event was cached");
+        assertEquals(2, stub.lookups(USER_ID));
+    }
+
+    @Test
+    void subscribingAgainDropsEverything() throws InterruptedException {
+        cache.get(USER_ID);
+        cache.get(OTHER_USER_ID);
+        assertEquals(2, size());
+
+        stub.send("subscribed", null, "{}");
+        await(() -> size() == 0, "The cache kept users across a new subscription");
+        cache.get(USER_ID);
+        assertEquals(2, stub.lookups(USER_ID));
+    }
+
+    @Test
+    void nothingIsAnsweredWhileDisconnected() throws InterruptedException {
+        cache.get(USER_ID);
+        stub.disconnect(true);
+        await(() -> subscribed() == 0, "The cache did not notice the feed was lost");
+
+        cache.get(USER_ID);
+        cache.get(USER_ID);
+        assertEquals(3, stub.lookups(USER_ID), "Users were answered or cached without the feed");
+
+        stub.accept();
+        await(() -> stub.subscriptions() == 2, "The cache did not subscribe again");
+        assertEquals(0, subscribed(), "The cache followed the feed before it subscribed");
+        stub.send("subscribed", null, "{}");
+        await(() -> subscribed() == 1, "The cache did not follow the feed again");
+        cache.get(USER_ID);
+        cache.get(USER_ID);
+        assertEquals(4, stub.lookups(USER_ID));
+    }
+
+    private double subscribed() {
+        return meterRegistry.get("services.user.cache.subscribed").gauge().value();
+    }
+
+    private double size() {
+        return meterRegistry.get("services.user.cache.size").gauge().value();
+    }
+
+    private static String user(long id, boolean frozen) {
+        return """
+                {"id":%d,"username":"user%d","email":"user%d@shop.io","isAdmin":false,"isFrozen":%b,\
+                "isDeleted":false}""".formatted(id, id, id, frozen);
+    }
+}
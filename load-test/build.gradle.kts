@@ -0,0 +1,68 @@
+plugins {
+    java
+    id("org.springframework.boot") version "3.0.4"
+    id("io.spring.dependency-management") version "1.1.0"
+}
+
+group = "ru.scriptrid"
+version = "0.0.1-SNAPSHOT"
+java.sourceCompatibility = JavaVersion.VERSION_21
+
+extra["postgresql.version"] = "42.6.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation("org.springframework.boot:spring-boot-starter-json")
+    implementation("io.jsonwebtoken:jjwt-api:0.11.5")
+    implementation("org.hdrhistogram:HdrHistogram:2.1.12")
+    compileOnly("jakarta.annotation:jakarta.annotation-api")
+    runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
+    runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
+    testImplementation(project(":order-service"))
+    testImplementation(project(":common"))
+    testImplementation("org.springframework.boot:spring-boot-starter-web")
+    testImplementation("org.springframework.boot:spring-boot-starter-webflux")
+    testImplementation("org.springframework.boot:spring-boot-starter-jdbc")
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.zonky.test:embedded-postgres:2.0.7")
+    testImplementation(enforcedPlatform("io.zonky.test.postgres:embedded-postgres-binaries-bom:15.5.0"))
+}
+
+tasks.bootJar {
+    enabled = false
+}
+
+tasks.register<JavaExec>("replay") {
+    description = "Replays the shop.postman.json collection against locally started services. " +
+            "Tune with -Preplay.concurrency=..., -Preplay.mix=..., see ReplaySettings."
+    group = "verification"
+    mainClass.set("ru.scriptrid.loadtest.replay.PostmanReplay")
+    classpath = sourceSets.main.get().runtimeClasspath
+    workingDir = rootDir
+    systemProperties(project.properties.filterKeys { it.startsWith("replay.") })
+}
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+tasks.register<Test>("loadTest") {
+    description = "Drives checkouts against order-service with stubbed downstream services. " +
+            "Tune with -PloadTest.rate=..., -PloadTest.duration=..., see LoadTestSettings."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+    outputs.upToDateWhen { false }
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+}
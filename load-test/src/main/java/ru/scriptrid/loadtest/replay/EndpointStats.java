@@ -0,0 +1,53 @@
+package ru.scriptrid.loadtest.replay;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and response status counts of one request of the collection. Safe to record from many
+ * threads.
+ */
+public class EndpointStats {
+    private static final long MAX_TRACKED_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final Recorder latencies = new Recorder(MAX_TRACKED_LATENCY, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyNanos, String outcome, boolean isError) {
+        latencies.recordValue(Math.min(latencyNanos, MAX_TRACKED_LATENCY));
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        if (isError) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, used to leave the warm-up out of the report.
+     */
+    public void reset() {
+        latencies.reset();
+        outcomes.clear();
+        errors.reset();
+    }
+
+    public Histogram histogram() {
+        return latencies.getIntervalHistogram();
+    }
+
+    public Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+}
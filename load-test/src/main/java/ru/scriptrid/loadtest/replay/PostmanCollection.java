@@ -0,0 +1,146 @@
+package ru.scriptrid.loadtest.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.scriptrid.loadtest.replay.RequestTemplate.TokenRole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads a Postman v2.1 collection into {@link RequestTemplate}s. Numeric path segments become variables named after
+ * the segment before them ({@code /api/product/52} → {@code /api/product/{{product}}}), and numeric
+ * {@code somethingId} query parameters and JSON body fields become {@code {{something}}}. Bearer tokens are dropped;
+ * only whether the collection called as an admin is kept, so the replay can issue its own tokens.
+ */
+public final class PostmanCollection {
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern BODY_ID = Pattern.compile("\"(\\w+)Id\"(\\s*:\\s*)(\\d+)");
+
+    private final ObjectMapper mapper;
+
+    public PostmanCollection(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public List<RequestTemplate> read(Path collection) throws IOException {
+        List<RequestTemplate> templates = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        collect(mapper.readTree(collection.toFile()).path("item"), "", templates, names);
+        return templates;
+    }
+
+    private void collect(JsonNode items, String folder, List<RequestTemplate> templates, Set<String> names) {
+        for (JsonNode item : items) {
+            String name = folder + item.path("name").asText();
+            if (item.has("item")) {
+                collect(item.path("item"), name + "/", templates, names);
+            } else {
+                String unique = name;
+                for (int i = 2; !names.add(unique); i++) {
+                    unique = name + "#" + i;
+                }
+                templates.add(toTemplate(unique, item.path("request")));
+            }
+        }
+    }
+
+    private RequestTemplate toTemplate(String name, JsonNode request) {
+        JsonNode url = request.path("url");
+        Map<String, Long> defaults = new HashMap<>();
+
+        StringBuilder path = new StringBuilder();
+        String previous = "";
+        for (JsonNode segment : url.path("path")) {
+            String value = segment.asText();
+            path.append('/');
+            if (NUMBER.matcher(value).matches() && !previous.isEmpty()) {
+                path.append(variable(previous, value, defaults));
+            } else {
+                path.append(value);
+            }
+            previous = value;
+        }
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        for (JsonNode parameter : url.path("query")) {
+            String key = parameter.path("key").asText();
+            String value = parameter.path("value").asText();
+            if (key.endsWith("Id") && NUMBER.matcher(value).matches()) {
+                value = variable(key.substring(0, key.length() - 2), value, defaults);
+            }
+            query.add(key + "=" + value);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (JsonNode header : request.path("header")) {
+            if (!header.path("disabled").asBoolean()) {
+                headers.put(header.path("key").asText(), header.path("value").asText());
+            }
+        }
+        String body = null;
+        JsonNode bodyNode = request.path("body");
+        if ("raw".equals(bodyNode.path("mode").asText()) && !bodyNode.path("raw").asText().isBlank()) {
+            body = parameterizeBody(bodyNode.path("raw").asText(), defaults);
+            if ("json".equals(bodyNode.path("options").path("raw").path("language").asText())) {
+                headers.putIfAbsent("Content-Type", "application/json");
+            }
+        }
+
+        String host = joinHost(url.path("host"));
+        String port = url.path("port").asText("80");
+        return new RequestTemplate(name, request.path("method").asText("GET"), port,
+                "http://" + host + ":" + port, path + query.toString(), headers, body,
+                tokenRole(request.path("auth")), defaults);
+    }
+
+    private static String joinHost(JsonNode host) {
+        StringJoiner joined = new StringJoiner(".");
+        host.forEach(part -> joined.add(part.asText()));
+        return joined.toString();
+    }
+
+    private static String parameterizeBody(String body, Map<String, Long> defaults) {
+        Matcher matcher = BODY_ID.matcher(body);
+        StringBuilder parameterized = new StringBuilder();
+        while (matcher.find()) {
+            String variable = variable(matcher.group(1), matcher.group(3), defaults);
+            matcher.appendReplacement(parameterized,
+                    Matcher.quoteReplacement("\"" + matcher.group(1) + "Id\"" + matcher.group(2) + variable));
+        }
+        return matcher.appendTail(parameterized).toString();
+    }
+
+    private static String variable(String name, String value, Map<String, Long> defaults) {
+        defaults.putIfAbsent(name, Long.parseLong(value));
+        return "{{" + name + "}}";
+    }
+
+    private TokenRole tokenRole(JsonNode auth) {
+        if (!"bearer".equals(auth.path("type").asText())) {
+            return TokenRole.NONE;
+        }
+        for (JsonNode entry : auth.path("bearer")) {
+            if ("token".equals(entry.path("key").asText())) {
+                return isAdmin(entry.path("value").asText()) ? TokenRole.ADMIN : TokenRole.USER;
+            }
+        }
+        return TokenRole.NONE;
+    }
+
+    private boolean isAdmin(String jwt) {
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return false;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            return mapper.readTree(new String(payload, StandardCharsets.UTF_8)).path("isAdmin").asBoolean();
+        } catch (IllegalArgumentException | IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ru.scriptrid.loadtest.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the requests of the Postman collection shipped with the repository against locally started services.
+ * A fixed number of workers send requests back to back, each picked by {@link RequestMix}, with ids drawn from
+ * the configured ranges and tokens issued per user. After the warm-up, every request's latency is recorded per
+ * endpoint; the report is printed and written to {@link ReplaySettings#report()}.
+ * Run with {@code ./gradlew :load-test:replay}, see {@link ReplaySettings} for the parameters.
+ */
+public class PostmanReplay {
+    private final ReplaySettings settings;
+    private final RequestMix mix;
+    private final TokenIssuer tokenIssuer;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    public PostmanReplay(ReplaySettings settings, RequestMix mix) {
+        this.settings = settings;
+        this.mix = mix;
+        this.tokenIssuer = new TokenIssuer(settings.jwtSecret(), settings.jwtIssuer());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.requestTimeout())
+                .build();
+        mix.templates().forEach(template -> stats.put(template.name(), new EndpointStats()));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ReplaySettings settings = ReplaySettings.from(System.getProperties());
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        RequestMix mix = new RequestMix(new PostmanCollection(mapper).read(settings.collection()), settings.mix());
+        System.out.printf("Replaying %d requests of %s with %d workers%n", mix.templates().size(),
+                settings.collection(), settings.concurrency());
+
+        ReplayReport report = new PostmanReplay(settings, mix).run();
+        ReplayReport baseline = settings.baseline() == null ? null
+                : mapper.readValue(settings.baseline().toFile(), ReplayReport.class);
+        System.out.print(report.format(baseline));
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        mapper.writeValue(settings.report().toFile(), report);
+        System.out.println("Report written to " + settings.report().toAbsolutePath());
+    }
+
+    public ReplayReport run() throws InterruptedException {
+        String startedAt = Instant.now().toString();
+        long warmUpEnd = System.nanoTime() + settings.warmUp().toNanos();
+        long end = warmUpEnd + settings.duration().toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    send(mix.next());
+                }
+            });
+        }
+        TimeUnit.NANOSECONDS.sleep(warmUpEnd - System.nanoTime());
+        stats.values().forEach(EndpointStats::reset);
+        long measuredFrom = System.nanoTime();
+
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.duration().plus(settings.requestTimeout()).toSeconds() + 1,
+                TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        double durationSeconds = (System.nanoTime() - measuredFrom) / (double) TimeUnit.SECONDS.toNanos(1);
+        return ReplayReport.of(startedAt, settings.concurrency(), durationSeconds, stats);
+    }
+
+    private void send(RequestTemplate template) {
+        Map<String, Long> variables = variables(template);
+        String body = template.renderBody(variables);
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create(settings.targets().getOrDefault(template.port(), template.baseUri())
+                                + template.renderPath(variables)))
+                .timeout(settings.requestTimeout())
+                .method(template.method(), body == null
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        template.headers().forEach(request::header);
+        switch (template.tokenRole()) {
+            case USER -> request.header("Authorization", "Bearer " + tokenIssuer.userToken(
+                    draw(settings.userIds())));
+            case ADMIN -> request.header("Authorization", "Bearer " + tokenIssuer.adminToken(settings.adminId()));
+            case NONE -> {
+            }
+        }
+
+        EndpointStats endpoint = stats.get(template.name());
+        long start = System.nanoTime();
+        try {
+            int status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            endpoint.record(System.nanoTime() - start, String.valueOf(status), status >= 500);
+        } catch (IOException e) {
+            endpoint.record(System.nanoTime() - start, e.getClass().getSimpleName(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Long> variables(RequestTemplate template) {
+        Map<String, Long> variables = new HashMap<>(template.defaults());
+        settings.idRanges().forEach((name, range) -> variables.computeIfPresent(name, (key, value) -> draw(range)));
+        return variables;
+    }
+
+    private static long draw(ReplaySettings.IdRange range) {
+        return range.from() + ThreadLocalRandom.current().nextLong(range.size());
+    }
+}
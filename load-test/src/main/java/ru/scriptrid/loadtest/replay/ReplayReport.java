@@ -0,0 +1,94 @@
+package ru.scriptrid.loadtest.replay;
+
+import jakarta.annotation.Nullable;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Formatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Result of a replay, written as JSON so a later run can be compared with it. Each endpoint keeps its full latency
+ * histogram, compressed and base64 encoded, next to the usual percentiles.
+ */
+public record ReplayReport(
+        String startedAt,
+        int concurrency,
+        double durationSeconds,
+        Map<String, EndpointReport> endpoints
+) {
+
+    public record EndpointReport(
+            long count,
+            long errors,
+            Map<String, Long> outcomes,
+            double throughput,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            String histogram
+    ) {
+
+        static EndpointReport of(EndpointStats stats, double durationSeconds) {
+            Histogram histogram = stats.histogram();
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return new EndpointReport(histogram.getTotalCount(), stats.errors(), stats.outcomes(),
+                    histogram.getTotalCount() / durationSeconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        }
+
+        public Histogram decodeHistogram() throws DataFormatException {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(histogram)), 0);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    public static ReplayReport of(String startedAt, int concurrency, double durationSeconds,
+                                  Map<String, EndpointStats> stats) {
+        Map<String, EndpointReport> endpoints = new TreeMap<>();
+        stats.forEach((name, endpoint) -> endpoints.put(name, EndpointReport.of(endpoint, durationSeconds)));
+        return new ReplayReport(startedAt, concurrency, durationSeconds, endpoints);
+    }
+
+    /**
+     * A table of every endpoint; with a baseline, p50, p99 and throughput also show the change against it.
+     */
+    public String format(@Nullable ReplayReport baseline) {
+        Formatter table = new Formatter();
+        table.format("%-60s %8s %7s %9s %9s %9s %9s", "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms",
+                "max ms");
+        if (baseline != null) {
+            table.format(" %9s %9s %9s", "vs req/s", "vs p50", "vs p99");
+        }
+        table.format("%n");
+        endpoints.forEach((name, endpoint) -> {
+            table.format("%-60s %8d %7d %9.1f %9.1f %9.1f %9.1f", name, endpoint.count(), endpoint.errors(),
+                    endpoint.throughput(), endpoint.p50Ms(), endpoint.p99Ms(), endpoint.maxMs());
+            EndpointReport before = baseline == null ? null : baseline.endpoints().get(name);
+            if (before != null) {
+                table.format(" %9s %9s %9s", change(before.throughput(), endpoint.throughput()),
+                        change(before.p50Ms(), endpoint.p50Ms()), change(before.p99Ms(), endpoint.p99Ms()));
+            }
+            table.format("%n");
+        });
+        return table.toString();
+    }
+
+    private static String change(double before, double after) {
+        return before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) / before * 100);
+    }
+}
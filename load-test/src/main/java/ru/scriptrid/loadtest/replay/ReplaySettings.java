@@ -0,0 +1,98 @@
+package ru.scriptrid.loadtest.replay;
+
+import jakarta.annotation.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Replay parameters, read from {@code replay.*} system properties. Gradle forwards {@code -Preplay.*} project
+ * properties, e.g. {@code ./gradlew :load-test:replay -Preplay.concurrency=32 -Preplay.mix=order-service/*:3,*:1}.
+ *
+ * @param mix             comma separated {@code pattern:weight} pairs matched against request names such as
+ *                        {@code product-service/ProductController/getProduct}, {@code *} matches any characters.
+ *                        Requests matching no pattern are left out. Empty means every GET request, weighted equally.
+ * @param targets         base URI per port of the collection, e.g. {@code replay.target.8084=http://localhost:18084}
+ * @param idRanges        ranges ids are drawn from, per variable, e.g. {@code replay.ids.product=1-500}; a variable
+ *                        without a range keeps the value written in the collection
+ * @param userIds         range of user ids tokens are issued for, one token per user
+ * @param adminId         user id of the admin token used where the collection calls with an admin token
+ * @param report          file the report is written to
+ * @param baseline        earlier report to compare with, optional
+ */
+public record ReplaySettings(
+        Path collection,
+        String mix,
+        int concurrency,
+        Duration warmUp,
+        Duration duration,
+        Duration requestTimeout,
+        Map<String, String> targets,
+        Map<String, IdRange> idRanges,
+        IdRange userIds,
+        long adminId,
+        String jwtSecret,
+        String jwtIssuer,
+        Path report,
+        @Nullable Path baseline
+) {
+
+    public static ReplaySettings from(Properties properties) {
+        String baseline = properties.getProperty("replay.baseline");
+        return new ReplaySettings(
+                Path.of(properties.getProperty("replay.collection", "shop.postman.json")),
+                properties.getProperty("replay.mix", ""),
+                Integer.parseInt(properties.getProperty("replay.concurrency", "16")),
+                Duration.parse(properties.getProperty("replay.warmUp", "PT10S")),
+                Duration.parse(properties.getProperty("replay.duration", "PT60S")),
+                Duration.parse(properties.getProperty("replay.requestTimeout", "PT10S")),
+                withPrefix(properties, "replay.target."),
+                parseRanges(withPrefix(properties, "replay.ids.")),
+                IdRange.parse(properties.getProperty("replay.users", "1"), "replay.users"),
+                Long.parseLong(properties.getProperty("replay.admin", "1")),
+                properties.getProperty("replay.jwt.secret", "really_big_secret_code_trust_me_i_always_right"),
+                properties.getProperty("replay.jwt.issuer", "user-service"),
+                Path.of(properties.getProperty("replay.report", "load-test/build/replay/report.json")),
+                baseline == null || baseline.isBlank() ? null : Path.of(baseline));
+    }
+
+    private static Map<String, String> withPrefix(Properties properties, String prefix) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                values.put(name.substring(prefix.length()), properties.getProperty(name));
+            }
+        }
+        return values;
+    }
+
+    private static Map<String, IdRange> parseRanges(Map<String, String> values) {
+        Map<String, IdRange> ranges = new LinkedHashMap<>();
+        values.forEach((name, value) -> ranges.put(name, IdRange.parse(value, "replay.ids." + name)));
+        return ranges;
+    }
+
+    public record IdRange(long from, long to) {
+
+        static IdRange parse(String value, String property) {
+            String[] bounds = value.trim().split("-", 2);
+            try {
+                long from = Long.parseLong(bounds[0].trim());
+                long to = bounds.length == 1 ? from : Long.parseLong(bounds[1].trim());
+                if (to < from) {
+                    throw new IllegalArgumentException(property + " is an empty range: " + value);
+                }
+                return new IdRange(from, to);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(property + " must be an id or a range like 1-100: " + value, e);
+            }
+        }
+
+        long size() {
+            return to - from + 1;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ru.scriptrid.loadtest.replay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the next request to replay by weight, see {@link ReplaySettings#mix()} for the format.
+ */
+public class RequestMix {
+    private final List<RequestTemplate> templates = new ArrayList<>();
+    private final long[] cumulativeWeights;
+
+    public RequestMix(List<RequestTemplate> collection, String mix) {
+        List<Long> weights = new ArrayList<>();
+        List<WeightedPattern> patterns = parse(mix);
+        for (RequestTemplate template : collection) {
+            long weight = weight(template, patterns);
+            if (weight > 0) {
+                templates.add(template);
+                weights.add(weight);
+            }
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("replay.mix \"" + mix + "\" matches no request of the collection");
+        }
+        cumulativeWeights = new long[weights.size()];
+        long total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public RequestTemplate next() {
+        long point = ThreadLocalRandom.current().nextLong(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return templates.get(index >= 0 ? index : -index - 1);
+    }
+
+    public List<RequestTemplate> templates() {
+        return templates;
+    }
+
+    private static long weight(RequestTemplate template, List<WeightedPattern> patterns) {
+        if (patterns.isEmpty()) {
+            return "GET".equals(template.method()) ? 1 : 0;
+        }
+        for (WeightedPattern pattern : patterns) {
+            if (pattern.pattern().matcher(template.name()).matches()) {
+                return pattern.weight();
+            }
+        }
+        return 0;
+    }
+
+    private static List<WeightedPattern> parse(String mix) {
+        List<WeightedPattern> patterns = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            String glob = separator < 0 ? entry.trim() : entry.substring(0, separator).trim();
+            long weight = separator < 0 ? 1 : Long.parseLong(entry.substring(separator + 1).trim());
+            StringBuilder regex = new StringBuilder();
+            for (String literal : glob.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(literal));
+            }
+            patterns.add(new WeightedPattern(Pattern.compile(regex.toString()), weight));
+        }
+        return patterns;
+    }
+
+    private record WeightedPattern(Pattern pattern, long weight) {
+    }
+}
@@ -0,0 +1,49 @@
+package ru.scriptrid.loadtest.replay;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A request of the collection with its ids replaced by {@code {{name}}} variables. {@code defaults} holds the ids
+ * written in the collection, used for variables the replay has no range for.
+ *
+ * @param port the port of the service in the collection, used to pick the target base URI
+ */
+public record RequestTemplate(
+        String name,
+        String method,
+        String port,
+        String baseUri,
+        String path,
+        Map<String, String> headers,
+        @Nullable String body,
+        TokenRole tokenRole,
+        Map<String, Long> defaults
+) {
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{(\\w+)}}");
+
+    public String renderPath(Map<String, Long> variables) {
+        return render(path, variables);
+    }
+
+    @Nullable
+    public String renderBody(Map<String, Long> variables) {
+        return body == null ? null : render(body, variables);
+    }
+
+    private static String render(String template, Map<String, Long> variables) {
+        Matcher matcher = VARIABLE.matcher(template);
+        StringBuilder rendered = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(rendered, String.valueOf(variables.get(matcher.group(1))));
+        }
+        return matcher.appendTail(rendered).toString();
+    }
+
+    public enum TokenRole {
+        NONE, USER, ADMIN
+    }
+}
@@ -0,0 +1,48 @@
+package ru.scriptrid.loadtest.replay;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues user tokens the way user-service does, signed with the secret the services share, so a replay does not
+ * have to log every user in first. Tokens are issued once per user and reused.
+ */
+public class TokenIssuer {
+    private final SecretKey key;
+    private final String issuer;
+    private final Map<Long, String> userTokens = new ConcurrentHashMap<>();
+    private final Map<Long, String> adminTokens = new ConcurrentHashMap<>();
+
+    public TokenIssuer(String secret, String issuer) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.issuer = issuer;
+    }
+
+    public String userToken(long userId) {
+        return userTokens.computeIfAbsent(userId, id -> issue(id, false));
+    }
+
+    public String adminToken(long userId) {
+        return adminTokens.computeIfAbsent(userId, id -> issue(id, true));
+    }
+
+    private String issue(long userId, boolean isAdmin) {
+        return Jwts.builder()
+                .claim("id", userId)
+                .claim("username", "user" + userId)
+                .claim("email", "user" + userId + "@shop.io")
+                .claim("isAdmin", isAdmin)
+                .claim("isService", false)
+                .setIssuedAt(new Date())
+                .setIssuer(issuer)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,169 @@
+package ru.scriptrid.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.LongStream;
+
+/**
+ * Sends {@code POST /api/order/} at a fixed rate, independent of how fast responses come back. Latency is measured
+ * from the moment a request was due to be sent rather than when it actually left, so a stalled server shows up in
+ * the percentiles instead of silently lowering the offered load. {@link #runConcurrent} instead keeps a fixed number
+ * of checkouts in flight, each client sending the next one when the last was answered.
+ */
+public class CheckoutLoadGenerator implements AutoCloseable {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(executor)
+            .build();
+    private final URI orderUri;
+    private final String customerJwt;
+    private final int products;
+    private final Duration requestTimeout;
+
+    public CheckoutLoadGenerator(String orderServiceUri, String customerJwt, int products, Duration requestTimeout) {
+        this.orderUri = URI.create(orderServiceUri + "/api/order/");
+        this.customerJwt = customerJwt;
+        this.products = products;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public LoadReport run(int rate, Duration duration) throws InterruptedException {
+        int total = (int) (rate * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long[] latencies = new long[total];
+        AtomicInteger succeeded = new AtomicInteger();
+        Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            client.sendAsync(checkout(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[index] = System.nanoTime() - due;
+                        if (e != null) {
+                            failures.computeIfAbsent(rootCause(e).getClass().getSimpleName(), key -> new AtomicInteger())
+                                    .incrementAndGet();
+                        } else if (response.statusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failures.computeIfAbsent("HTTP " + response.statusCode(), key -> new AtomicInteger())
+                                    .incrementAndGet();
+                        }
+                        done.countDown();
+                    });
+        }
+        done.await();
+        return LoadReport.of(rate, total, succeeded.get(), failures, latencies, System.nanoTime() - start);
+    }
+
+    /**
+     * Keeps {@code concurrency} checkouts in flight for {@code duration}.
+     */
+    public LoadReport runConcurrent(int concurrency, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicInteger succeeded = new AtomicInteger();
+        Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+        List<Latencies> clients = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Latencies latencies = new Latencies();
+            clients.add(latencies);
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        String failure = send();
+                        latencies.add(System.nanoTime() - sent);
+                        if (failure == null) {
+                            succeeded.incrementAndGet();
+                        } else {
+                            failures.computeIfAbsent(failure, key -> new AtomicInteger()).incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        long[] latencies = clients.stream().flatMapToLong(Latencies::stream).toArray();
+        return LoadReport.of(0, latencies.length, succeeded.get(), failures, latencies, elapsed);
+    }
+
+    /**
+     * @return why the checkout failed, or null if it succeeded
+     */
+    private String send() throws InterruptedException {
+        try {
+            int status = client.sendAsync(checkout(), HttpResponse.BodyHandlers.discarding()).get().statusCode();
+            return status == 200 ? null : "HTTP " + status;
+        } catch (ExecutionException e) {
+            return rootCause(e).getClass().getSimpleName();
+        }
+    }
+
+    private HttpRequest checkout() {
+        long productId = ThreadLocalRandom.current().nextLong(1, products + 1);
+        return HttpRequest.newBuilder(orderUri)
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + customerJwt)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":" + productId + ",\"quantity\":1}"))
+                .build();
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        return e.getCause() == null ? e : rootCause(e.getCause());
+    }
+
+    /**
+     * Latencies of one client, written by its thread only and read once it is done.
+     */
+    private static final class Latencies {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long latency) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = latency;
+        }
+
+        LongStream stream() {
+            return Arrays.stream(values, 0, size);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
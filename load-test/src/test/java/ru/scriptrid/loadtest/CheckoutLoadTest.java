@@ -0,0 +1,107 @@
+package ru.scriptrid.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.orderservice.OrderServiceApplication;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots order-service against an embedded PostgreSQL and {@link ServiceStubs}, offers checkouts at
+ * {@link LoadTestSettings#rate()} per second and fails if throughput or p99 latency regress past the configured
+ * limits. Run with {@code ./gradlew :load-test:loadTest}.
+ */
+@Tag("load")
+class CheckoutLoadTest {
+    private static final long CUSTOMER_ID = 1;
+    private static final Duration COMPENSATION_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static LoadTestSettings settings;
+    private static EmbeddedPostgres postgres;
+    private static ServiceStubs stubs;
+    private static ConfigurableApplicationContext orderService;
+
+    @BeforeAll
+    static void start() throws IOException {
+        settings = LoadTestSettings.fromSystemProperties();
+        postgres = EmbeddedPostgres.builder().start();
+        stubs = new ServiceStubs(settings.stubLatency(), settings.stubErrorRate());
+        orderService = new SpringApplicationBuilder(OrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--services.product.uri=" + stubs.uri(),
+                "--services.organization.uri=" + stubs.uri(),
+                "--services.user.uri=" + stubs.uri(),
+                "--orders.compensations.poll-delay=200",
+                "--orders.compensations.initial-backoff=100ms",
+                "--orders.compensations.max-backoff=1s");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        if (orderService != null) {
+            orderService.close();
+        }
+        if (stubs != null) {
+            stubs.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void checkoutMeetsThroughputAndLatencyTargets() throws InterruptedException {
+        String uri = "http://localhost:" + orderService.getEnvironment().getProperty("local.server.port");
+        String jwt = orderService.getBean(JwtService.class)
+                .generateUserToken(new UserDto(CUSTOMER_ID, "customer", "customer@shop.io", false, false, false));
+        JdbcTemplate jdbcTemplate = orderService.getBean(JdbcTemplate.class);
+
+        LoadReport report;
+        try (CheckoutLoadGenerator generator = new CheckoutLoadGenerator(uri, jwt, settings.products(),
+                settings.requestTimeout())) {
+            generator.run(settings.rate(), settings.warmUp());
+            long ordersBefore = countOrders(jdbcTemplate);
+            report = generator.run(settings.rate(), settings.duration());
+            System.out.println(report.format());
+            System.out.println("injected stub errors " + stubs.injectedErrors());
+            assertEquals(report.succeeded(), countOrders(jdbcTemplate) - ordersBefore,
+                    "Every successful checkout must have stored exactly one order");
+        }
+
+        awaitCompensations(jdbcTemplate);
+        assertEquals(countOrders(jdbcTemplate), stubs.netReserved(),
+                "Stock reserved for failed checkouts must be returned");
+        assertTrue(report.responseRate() >= settings.rate() * settings.minThroughputRatio(),
+                () -> String.format("Answered %.1f checkouts/s, offered %d/s", report.responseRate(), settings.rate()));
+        assertTrue(report.p99().compareTo(settings.maxP99()) <= 0,
+                () -> "p99 latency " + report.p99().toMillis() + " ms exceeds " + settings.maxP99().toMillis() + " ms");
+        if (settings.stubErrorRate() == 0) {
+            assertEquals(report.sent(), report.succeeded(), () -> "Failed checkouts: " + report.failures());
+        }
+    }
+
+    private static long countOrders(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select count(*) from orders", Long.class);
+    }
+
+    private static void awaitCompensations(JdbcTemplate jdbcTemplate) throws InterruptedException {
+        long deadline = System.nanoTime() + COMPENSATION_DRAIN_TIMEOUT.toNanos();
+        while (jdbcTemplate.queryForObject("select count(*) from compensations where status = 'PENDING'",
+                Long.class) > 0) {
+            assertTrue(System.nanoTime() < deadline, "Compensations were not retried in time");
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.scriptrid.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public record LoadReport(
+        int targetRate,
+        int sent,
+        int succeeded,
+        Map<String, Integer> failures,
+        double responseRate,
+        double throughput,
+        Duration p50,
+        Duration p90,
+        Duration p99,
+        Duration p999,
+        Duration max
+) {
+
+    static LoadReport of(int targetRate, int sent, int succeeded, Map<String, AtomicInteger> failures,
+                         long[] latencies, long elapsedNanos) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        Map<String, Integer> failureCounts = new TreeMap<>();
+        failures.forEach((reason, count) -> failureCounts.put(reason, count.get()));
+        double elapsedSeconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return new LoadReport(targetRate, sent, succeeded, failureCounts,
+                sent / elapsedSeconds, succeeded / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), Duration.ofNanos(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(index, 0)]);
+    }
+
+    public String format() {
+        return String.format("""
+                        target rate   %8d checkouts/s
+                        sent          %8d
+                        succeeded     %8d
+                        failed        %8d %s
+                        responses     %8.1f /s
+                        throughput    %8.1f checkouts/s
+                        latency ms    p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f""",
+                targetRate, sent, succeeded, sent - succeeded, failures, responseRate, throughput,
+                millis(p50), millis(p90), millis(p99), millis(p999), millis(max));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
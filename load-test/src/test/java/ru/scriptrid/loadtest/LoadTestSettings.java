@@ -0,0 +1,37 @@
+package ru.scriptrid.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Load test parameters, read from {@code loadTest.*} system properties. Gradle forwards {@code -PloadTest.*}
+ * project properties, e.g. {@code ./gradlew :load-test:loadTest -PloadTest.rate=300 -PloadTest.stubErrorRate=0.01}.
+ */
+public record LoadTestSettings(
+        int rate,
+        Duration warmUp,
+        Duration duration,
+        int products,
+        Duration stubLatency,
+        double stubErrorRate,
+        Duration requestTimeout,
+        Duration maxP99,
+        double minThroughputRatio
+) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(property("rate", "100")),
+                Duration.parse(property("warmUp", "PT10S")),
+                Duration.parse(property("duration", "PT30S")),
+                Integer.parseInt(property("products", "100")),
+                Duration.parse(property("stubLatency", "PT0.01S")),
+                Double.parseDouble(property("stubErrorRate", "0")),
+                Duration.parse(property("requestTimeout", "PT10S")),
+                Duration.parse(property("maxP99", "PT0.5S")),
+                Double.parseDouble(property("minThroughputRatio", "0.95")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+}
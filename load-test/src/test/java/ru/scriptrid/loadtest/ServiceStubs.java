@@ -0,0 +1,133 @@
+package ru.scriptrid.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import jakarta.annotation.Nullable;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.dto.ProductDto;
+import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.common.dto.UserDto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-ins for the product-, organization- and user-service endpoints a checkout calls. Every response is delayed
+ * by a fixed latency, and a configurable share of requests fails with 503. Reserved and returned product quantities
+ * are counted so the test can check that failed checkouts did not leak stock.
+ */
+public class ServiceStubs implements AutoCloseable {
+    public static final long ORGANIZATION_ID = 1;
+    public static final long SELLER_ID = 2;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Duration latency;
+    private final double errorRate;
+    private final DisposableServer server;
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong returned = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    public ServiceStubs(Duration latency, double errorRate) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/product/{id}", (request, response) -> respond(response, () -> product(request)))
+                        .put("/api/product/{id}/reserve", (request, response) ->
+                                applyQuantity(request, response, reserved))
+                        .put("/api/product/{id}/return", (request, response) ->
+                                applyQuantity(request, response, returned))
+                        .get("/api/organization/{id}", (request, response) -> respond(response, () ->
+                                new OrganizationDto(ORGANIZATION_ID, "organization", false, false, "", SELLER_ID, "")))
+                        .get("/api/user/{id}", (request, response) -> respond(response, () ->
+                                new UserDto(SELLER_ID, "seller", "seller@shop.io", false, false, false)))
+                        .put("/api/transaction/transfer", (request, response) -> request.receive().then()
+                                .then(respond(response, () -> transaction(false))))
+                        .put("/api/transaction/transfer/return", (request, response) -> request.receive().then()
+                                .then(respond(response, () -> transaction(true)))))
+                .bindNow();
+    }
+
+    public String uri() {
+        return "http://localhost:" + server.port();
+    }
+
+    /**
+     * Quantity reserved by checkouts and not given back by their compensations.
+     */
+    public long netReserved() {
+        return reserved.get() - returned.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private ProductDto product(HttpServerRequest request) {
+        long id = Long.parseLong(request.param("id"));
+        return new ProductDto(id, "product " + id, "", ORGANIZATION_ID, BigDecimal.TEN, Integer.MAX_VALUE,
+                Set.of(), Map.of(), BigDecimal.ONE);
+    }
+
+    private TransactionDto transaction(boolean isReturn) {
+        BigDecimal amount = isReturn ? BigDecimal.TEN : BigDecimal.TEN.negate();
+        return new TransactionDto(transactions.incrementAndGet(), 1, SELLER_ID, amount, amount.negate(), isReturn,
+                ZonedDateTime.now());
+    }
+
+    private Mono<Void> applyQuantity(HttpServerRequest request, HttpServerResponse response, AtomicLong counter) {
+        return request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                .flatMap(quantity -> respond(response, () -> {
+                    counter.addAndGet(Long.parseLong(quantity.trim()));
+                    return null;
+                }));
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, BodySupplier body) {
+        Mono<Void> reply;
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            reply = response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send();
+        } else {
+            reply = Mono.fromCallable(() -> json(body.get()))
+                    .flatMap(bytes -> response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendByteArray(Mono.just(bytes))
+                            .then());
+        }
+        return latency.isZero() ? reply : Mono.delay(latency).then(reply);
+    }
+
+    private byte[] json(@Nullable Object body) throws JsonProcessingException {
+        return body == null ? new byte[0] : mapper.writeValueAsBytes(body);
+    }
+
+    @FunctionalInterface
+    private interface BodySupplier {
+        @Nullable
+        Object get();
+    }
+}
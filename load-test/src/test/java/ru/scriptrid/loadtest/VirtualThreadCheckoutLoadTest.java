@@ -0,0 +1,114 @@
+package ru.scriptrid.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.orderservice.OrderServiceApplication;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Finds the most concurrent checkouts order-service sustains with {@code threads.virtual.enabled} off and on. It
+ * boots order-service once per mode against an embedded PostgreSQL and {@link ServiceStubs}, and keeps an increasing
+ * number of {@code POST /api/order/} in flight. A level is sustained when every checkout succeeds and the p99 stays
+ * within {@link #MAX_SLOWDOWN} times the p50 at {@link #BASELINE_CONCURRENCY}, that is before checkouts start to
+ * queue.
+ * <p>
+ * Tomcat is limited to {@link #TOMCAT_THREADS} threads and the stubs answer slowly, so the thread limit is reached
+ * while the CPU of a small machine still keeps up; with Tomcat's default of 200 threads it runs out first and both
+ * modes measure the same. A checkout holds a database connection across its remote calls, so the pool is sized
+ * above the highest level; with the pool of 10 order-service ships with, the pool caps both modes before threads do.
+ * Run with {@code ./gradlew :load-test:loadTest --tests '*VirtualThreadCheckoutLoadTest'}.
+ */
+@Tag("load")
+class VirtualThreadCheckoutLoadTest {
+    private static final long CUSTOMER_ID = 1;
+    private static final Duration STUB_LATENCY = Duration.ofMillis(500);
+    private static final int TOMCAT_THREADS = 20;
+    private static final int BASELINE_CONCURRENCY = 10;
+    private static final int[] CONCURRENCY = {20, 40, 60, 80};
+    private static final int POOL_SIZE = 100;
+    private static final Duration STEP = Duration.ofSeconds(15);
+    private static final double MAX_SLOWDOWN = 1.5;
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", String.valueOf(POOL_SIZE + 50))
+                .start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void virtualThreadsSustainMoreConcurrentCheckouts() throws InterruptedException {
+        System.out.printf("%-10s %12s %14s %10s %10s %10s%n",
+                "mode", "concurrency", "checkouts/s", "p50 ms", "p99 ms", "failed");
+        int platform = maxSustainedConcurrency(false);
+        int virtual = maxSustainedConcurrency(true);
+        System.out.printf("most concurrent checkouts sustained: platform threads %d, virtual threads %d%n",
+                platform, virtual);
+        assertTrue(virtual > platform, "Virtual threads should sustain more concurrent checkouts than Tomcat's thread pool");
+    }
+
+    private static int maxSustainedConcurrency(boolean virtualThreads) throws InterruptedException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ServiceStubs stubs = new ServiceStubs(STUB_LATENCY, 0);
+             ConfigurableApplicationContext orderService = startOrderService(virtualThreads, stubs);
+             CheckoutLoadGenerator generator = new CheckoutLoadGenerator(
+                     "http://localhost:" + orderService.getEnvironment().getProperty("local.server.port"),
+                     orderService.getBean(JwtService.class).generateUserToken(
+                             new UserDto(CUSTOMER_ID, "customer", "customer@shop.io", false, false, false)),
+                     100, Duration.ofSeconds(30))) {
+            generator.runConcurrent(BASELINE_CONCURRENCY, STEP);
+            LoadReport baseline = print(mode, BASELINE_CONCURRENCY,
+                    generator.runConcurrent(BASELINE_CONCURRENCY, STEP));
+            Duration limit = Duration.ofNanos((long) (baseline.p50().toNanos() * MAX_SLOWDOWN));
+            int sustained = 0;
+            for (int concurrency : CONCURRENCY) {
+                LoadReport report = print(mode, concurrency, generator.runConcurrent(concurrency, STEP));
+                if (report.succeeded() < report.sent() || report.p99().compareTo(limit) > 0) {
+                    break;
+                }
+                sustained = concurrency;
+            }
+            return sustained;
+        }
+    }
+
+    private static ConfigurableApplicationContext startOrderService(boolean virtualThreads, ServiceStubs stubs) {
+        return new SpringApplicationBuilder(OrderServiceApplication.class).run(
+                "--server.port=0",
+                "--threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--services.product.uri=" + stubs.uri(),
+                "--services.organization.uri=" + stubs.uri(),
+                "--services.user.uri=" + stubs.uri(),
+                "--services.organization.feed.enabled=false",
+                "--services.user.cache.enabled=false");
+    }
+
+    private static LoadReport print(String mode, int concurrency, LoadReport report) {
+        System.out.printf("%-10s %12d %14.0f %10.1f %10.1f %10d%n", mode, concurrency, report.throughput(),
+                report.p50().toNanos() / 1e6, report.p99().toNanos() / 1e6, report.sent() - report.succeeded());
+        return report;
+    }
+}
@@ -7,7 +7,10 @@ plugins {
 group = "ru.scriptrid"
 version = "0.0.1-SNAPSHOT"
 
-java.sourceCompatibility = JavaVersion.VERSION_17
+java.sourceCompatibility = JavaVersion.VERSION_21
+
+extra["lombok.version"] = "1.18.30"
+extra["postgresql.version"] = "42.6.0"
 
 configurations {
     compileOnly {
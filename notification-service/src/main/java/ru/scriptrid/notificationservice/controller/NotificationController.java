@@ -5,6 +5,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.notificationservice.model.dto.NotificationBroadcastDto;
 import ru.scriptrid.notificationservice.model.dto.NotificationCreateDto;
 import ru.scriptrid.notificationservice.model.dto.NotificationDto;
 import ru.scriptrid.notificationservice.service.NotificationService;
@@ -27,6 +28,12 @@ public class NotificationController {
         return notificationService.sendNotification(dto);
     }
 
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/broadcast")
+    public List<NotificationDto> broadcastNotification(@RequestBody @Valid NotificationBroadcastDto dto) {
+        return notificationService.broadcastNotification(dto);
+    }
+
     @GetMapping("/{id}")
     public NotificationDto getNotification(@AuthenticationPrincipal JwtAuthenticationToken token, @PathVariable long id) {
         return notificationService.getNotification(token, id);
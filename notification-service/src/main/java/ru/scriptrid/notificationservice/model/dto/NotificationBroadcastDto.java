@@ -0,0 +1,23 @@
+package ru.scriptrid.notificationservice.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Set;
+
+@Validated
+public record NotificationBroadcastDto(
+
+        @NotEmpty
+        @Size(max = 10000)
+        Set<Long> destinationIds,
+
+        @NotBlank
+        String notificationHeader,
+
+        @NotBlank
+        String notificationText
+) {
+}
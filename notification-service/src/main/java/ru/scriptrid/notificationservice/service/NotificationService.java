@@ -10,12 +10,14 @@ import ru.scriptrid.common.exception.InvalidOwnerException;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.notificationservice.exceptions.InvalidUserException;
 import ru.scriptrid.notificationservice.exceptions.NotificationNotFoundException;
+import ru.scriptrid.notificationservice.model.dto.NotificationBroadcastDto;
 import ru.scriptrid.notificationservice.model.dto.NotificationCreateDto;
 import ru.scriptrid.notificationservice.model.dto.NotificationDto;
 import ru.scriptrid.notificationservice.model.entity.NotificationEntity;
 import ru.scriptrid.notificationservice.repository.NotificationRepository;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -44,6 +46,25 @@ public class NotificationService {
         return toDto(notificationEntity);
     }
 
+    /**
+     * Sends the notification to every user of the broadcast that exists and is neither deleted nor frozen. The users
+     * are looked up in batches rather than one by one, before the notifications are saved in one transaction.
+     */
+    public List<NotificationDto> broadcastNotification(NotificationBroadcastDto dto) {
+        Map<Long, UserDto> users = webUserService.getDtos(dto.destinationIds());
+        List<NotificationEntity> notifications = users.values()
+                .stream()
+                .filter(user -> !user.isDeleted() && !user.isFrozen())
+                .map(user -> toEntity(user.id(), dto.notificationHeader(), dto.notificationText()))
+                .toList();
+        List<NotificationDto> sent = notificationRepository.saveAll(notifications)
+                .stream()
+                .map(this::toDto)
+                .toList();
+        log.info("Notification broadcast to {} of {} users", sent.size(), dto.destinationIds().size());
+        return sent;
+    }
+
     @Transactional
     public NotificationDto getNotification(JwtAuthenticationToken token, long id) {
         NotificationEntity notification = getNotificationById(id);
@@ -78,10 +99,14 @@ public class NotificationService {
     }
 
     private NotificationEntity toEntity(NotificationCreateDto dto) {
+        return toEntity(dto.destinationId(), dto.notificationHeader(), dto.notificationText());
+    }
+
+    private NotificationEntity toEntity(long destinationId, String header, String text) {
         NotificationEntity entity = new NotificationEntity();
-        entity.setDestinationId(dto.destinationId());
-        entity.setNotificationHeader(dto.notificationHeader());
-        entity.setNotificationText(dto.notificationText());
+        entity.setDestinationId(destinationId);
+        entity.setNotificationHeader(header);
+        entity.setNotificationText(text);
 
         return entity;
     }
@@ -1,17 +1,25 @@
 package ru.scriptrid.notificationservice.service;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ChunkedLookup;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.client.UserStatusCache;
 import ru.scriptrid.common.dto.UserDto;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
-import ru.scriptrid.common.security.JwtService;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 
 
 @Service
@@ -19,15 +27,27 @@ import ru.scriptrid.common.security.JwtService;
 public class WebUserService {
 
     private final WebClient webClient;
+    private final ChunkedLookup chunkedLookup;
+    @Nullable
+    private final UserStatusCache userStatusCache;
 
-    public WebUserService(@Value("${services.user.uri}") String productServiceUri, WebClient.Builder builder, JwtService jwtService) {
-        this.webClient = builder.baseUrl(productServiceUri).build();
+    public WebUserService(@Value("${services.user.uri}") String productServiceUri, ServiceWebClientFactory clientFactory,
+                          ChunkedLookup chunkedLookup, Optional<UserStatusCache> userStatusCache) {
+        this.webClient = clientFactory.create("user-service", productServiceUri);
+        this.chunkedLookup = chunkedLookup;
+        this.userStatusCache = userStatusCache.orElse(null);
     }
 
+    /**
+     * Answered by the {@link UserStatusCache} when it is enabled, otherwise by user-service with the token of the caller.
+     */
     public UserDto getDto(long id) {
+        if (userStatusCache != null) {
+            return userStatusCache.get(id);
+        }
         JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         return webClient.get()
-                .uri("/api/user/" + id)
+                .uri("/api/user/{id}", id)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
                 .retrieve()
                 .bodyToMono(UserDto.class)
@@ -36,4 +56,22 @@ public class WebUserService {
                 .block();
 
     }
+
+    /**
+     * Looks the users up through {@code /api/user/batch}, in chunks, with the token of the caller.
+     *
+     * @return the users found, by id
+     */
+    public Map<Long, UserDto> getDtos(Collection<Long> ids) {
+        JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+        return chunkedLookup.lookUp(ids, chunk -> webClient.post()
+                        .uri("/api/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(chunk)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
+                        .retrieve()
+                        .bodyToFlux(UserDto.class))
+                .collectMap(UserDto::id)
+                .block();
+    }
 }
\ No newline at end of file
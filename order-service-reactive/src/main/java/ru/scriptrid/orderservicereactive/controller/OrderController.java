@@ -0,0 +1,62 @@
+package ru.scriptrid.orderservicereactive.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.dto.OrderDto;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservicereactive.model.dto.OrderCreateDto;
+import ru.scriptrid.orderservicereactive.model.dto.OrderHistoryQuery;
+import ru.scriptrid.orderservicereactive.model.dto.OrderPageDto;
+import ru.scriptrid.orderservicereactive.service.OrderService;
+
+import java.time.ZonedDateTime;
+
+@RestController
+@RequestMapping("/api/order/")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @PostMapping
+    public Mono<OrderDto> addOrder(@AuthenticationPrincipal JwtAuthenticationToken token, @RequestBody OrderCreateDto dto) {
+        return orderService.addOrder(dto, token);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    @GetMapping
+    public Mono<OrderPageDto> getOrders(@RequestParam(required = false) Long userId,
+                                        @RequestParam(required = false) Long sellerId,
+                                        @RequestParam(required = false) Long productId,
+                                        @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(userId, sellerId, productId, query);
+    }
+
+    @GetMapping("/{orderId}")
+    public Mono<OrderDto> getOrder(@AuthenticationPrincipal JwtAuthenticationToken token, @PathVariable Long orderId) {
+        return orderService.getOrder(token, orderId);
+    }
+
+    @GetMapping("/my")
+    public Mono<OrderPageDto> getUserOrders(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                            @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(token.getId(), null, null, query);
+    }
+
+    @GetMapping("/my/sales")
+    public Mono<OrderPageDto> getUserSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                           @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(null, token.getId(), null, query);
+    }
+
+    @PutMapping("/{orderId}/refund")
+    public Mono<OrderDto> refundOrder(@AuthenticationPrincipal JwtAuthenticationToken token, @PathVariable long orderId) {
+        return orderService.refundOrder(token.getId(), orderId, ZonedDateTime.now());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.scriptrid.orderservicereactive.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservicereactive.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservicereactive.model.dto.SalesRollupQuery;
+import ru.scriptrid.orderservicereactive.service.SalesRollupService;
+
+@RestController
+@RequestMapping("/api/order/sales/")
+public class SalesController {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping("/{sellerId}")
+    public Flux<SalesRollupDto> getSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                         @PathVariable long sellerId,
+                                         @Valid SalesRollupQuery query) {
+        return salesRollupService.getRollups(token, sellerId, query);
+    }
+
+    @GetMapping("/my")
+    public Flux<SalesRollupDto> getUserSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                             @Valid SalesRollupQuery query) {
+        return salesRollupService.getRollups(token, token.getId(), query);
+    }
+}
@@ -0,0 +1,4 @@
+package ru.scriptrid.orderservicereactive.exceptions;
+
+public class ConflictingOrderFiltersException extends RuntimeException {
+}
@@ -0,0 +1,12 @@
+package ru.scriptrid.orderservicereactive.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ProductNotFoundForOrderException extends RuntimeException {
+    private final long id;
+
+    public ProductNotFoundForOrderException(long id) {
+        this.id = id;
+    }
+}
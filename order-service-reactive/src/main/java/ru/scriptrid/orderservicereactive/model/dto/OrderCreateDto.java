@@ -0,0 +1,7 @@
+package ru.scriptrid.orderservicereactive.model.dto;
+
+public record OrderCreateDto(
+        long productId,
+        int quantity
+) {
+}
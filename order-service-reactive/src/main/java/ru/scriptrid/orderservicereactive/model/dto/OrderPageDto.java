@@ -0,0 +1,18 @@
+package ru.scriptrid.orderservicereactive.model.dto;
+
+import jakarta.annotation.Nullable;
+import ru.scriptrid.common.dto.OrderDto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public record OrderPageDto(
+        List<OrderDto> orders,
+
+        @Nullable
+        ZonedDateTime nextBeforeTime,
+
+        @Nullable
+        Long nextBeforeId
+) {
+}
@@ -0,0 +1,23 @@
+package ru.scriptrid.orderservicereactive.model.dto;
+
+import jakarta.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+public record SalesRollupDto(
+        @Nullable
+        Long productId,
+        ZonedDateTime bucketStart,
+        Long orders,
+        Long units,
+        BigDecimal gross,
+        Long refunds,
+        Long refundedUnits,
+        BigDecimal refundedAmount
+) {
+    public SalesRollupDto(ZonedDateTime bucketStart, Long orders, Long units, BigDecimal gross,
+                          Long refunds, Long refundedUnits, BigDecimal refundedAmount) {
+        this(null, bucketStart, orders, units, gross, refunds, refundedUnits, refundedAmount);
+    }
+}
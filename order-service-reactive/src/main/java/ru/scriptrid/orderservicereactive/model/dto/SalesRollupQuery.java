@@ -0,0 +1,27 @@
+package ru.scriptrid.orderservicereactive.model.dto;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import ru.scriptrid.orderservicereactive.model.entity.SalesGranularity;
+
+import java.time.ZonedDateTime;
+
+@Validated
+public record SalesRollupQuery(
+        @NotNull
+        SalesGranularity granularity,
+
+        @NotNull
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        ZonedDateTime from,
+
+        @NotNull
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        ZonedDateTime to,
+
+        @Nullable
+        Long productId
+) {
+}
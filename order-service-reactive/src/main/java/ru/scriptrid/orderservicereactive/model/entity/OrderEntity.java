@@ -0,0 +1,50 @@
+package ru.scriptrid.orderservicereactive.model.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Getter
+@Setter
+@Table(name = "orders")
+public class OrderEntity {
+    @Id
+    @Column("order_id")
+    private Long id;
+
+    @Column("transaction_id")
+    private Long transactionId;
+
+    @Column("product_id")
+    private Long productId;
+
+    @Column("customer_id")
+    private Long customerId;
+
+    @Column("seller_id")
+    private Long sellerId;
+
+    @Column("quantity_of_product")
+    private Integer quantityOfProduct;
+
+    @Column("product_price")
+    private BigDecimal productPrice;
+
+    @Column("total")
+    private BigDecimal totalAmount;
+
+    @Column("time_of_order")
+    private ZonedDateTime timeOfOrder;
+
+    @Column("is_returned")
+    private Boolean isReturned = false;
+
+    @Column("returning_transaction_id")
+    private Long returningTransactionId = null;
+
+}
@@ -0,0 +1,63 @@
+package ru.scriptrid.orderservicereactive.repository;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.orderservicereactive.model.entity.OrderEntity;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Assigns ids to new orders from {@code order_entity_seq} the way Hibernate's pooled optimizer does in
+ * order-service: every {@code nextval} reserves the block of {@value #ALLOCATION_SIZE} ids ending at the returned
+ * value, so both builds can write to the same table and most inserts skip the sequence round trip. Concurrent
+ * refills each take a block of their own and all but one are cut short, which only leaves gaps in the ids.
+ */
+@Component
+public class OrderIdGenerator implements BeforeConvertCallback<OrderEntity> {
+    private static final long ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final AtomicReference<IdBlock> block = new AtomicReference<>(new IdBlock(1, 0));
+
+    public OrderIdGenerator(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Publisher<OrderEntity> onBeforeConvert(OrderEntity entity, SqlIdentifier table) {
+        if (entity.getId() != null) {
+            return Mono.just(entity);
+        }
+        return nextId().map(id -> {
+            entity.setId(id);
+            return entity;
+        });
+    }
+
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            IdBlock current = block.get();
+            while (current.next() <= current.last()) {
+                if (block.compareAndSet(current, new IdBlock(current.next() + 1, current.last()))) {
+                    return Mono.just(current.next());
+                }
+                current = block.get();
+            }
+            return databaseClient.sql("select nextval('order_entity_seq')")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(last -> {
+                        long first = Math.max(1, last - ALLOCATION_SIZE + 1);
+                        block.set(new IdBlock(first + 1, last));
+                        return first;
+                    });
+        });
+    }
+
+    private record IdBlock(long next, long last) {
+    }
+}
@@ -0,0 +1,46 @@
+package ru.scriptrid.orderservicereactive.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.orderservicereactive.model.entity.OrderEntity;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface OrderRepository extends ReactiveCrudRepository<OrderEntity, Long> {
+
+    @Query("select * from orders where order_id = :id and time_of_order >= :since")
+    Mono<OrderEntity> findRecentById(long id, ZonedDateTime since);
+
+    @Modifying
+    @Query("update orders set is_returned = true, returning_transaction_id = :returningTransactionId " +
+            "where order_id = :id and time_of_order = :timeOfOrder and not is_returned")
+    Mono<Integer> markReturned(long id, ZonedDateTime timeOfOrder, long returningTransactionId);
+
+    @Query("select * from orders where customer_id = :customerId and time_of_order >= :from " +
+            "and time_of_order <= :beforeTime and (time_of_order < :beforeTime or order_id < :beforeId) " +
+            "order by time_of_order desc, order_id desc limit :limit")
+    Flux<OrderEntity> findPageByCustomerId(long customerId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                           long beforeId, int limit);
+
+    @Query("select * from orders where seller_id = :sellerId and time_of_order >= :from " +
+            "and time_of_order <= :beforeTime and (time_of_order < :beforeTime or order_id < :beforeId) " +
+            "order by time_of_order desc, order_id desc limit :limit")
+    Flux<OrderEntity> findPageBySellerId(long sellerId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                         long beforeId, int limit);
+
+    @Query("select * from orders where product_id = :productId and time_of_order >= :from " +
+            "and time_of_order <= :beforeTime and (time_of_order < :beforeTime or order_id < :beforeId) " +
+            "order by time_of_order desc, order_id desc limit :limit")
+    Flux<OrderEntity> findPageByProductId(long productId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                          long beforeId, int limit);
+
+    @Query("select * from orders where time_of_order >= :from " +
+            "and time_of_order <= :beforeTime and (time_of_order < :beforeTime or order_id < :beforeId) " +
+            "order by time_of_order desc, order_id desc limit :limit")
+    Flux<OrderEntity> findPage(ZonedDateTime from, ZonedDateTime beforeTime, long beforeId, int limit);
+}
@@ -0,0 +1,104 @@
+package ru.scriptrid.orderservicereactive.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.orderservicereactive.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservicereactive.model.entity.SalesGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Rollup buckets are stored as UTC wall-clock time in a {@code timestamp} column, as order-service's Hibernate
+ * mapping writes them, so bucket starts are bound and read as {@link LocalDateTime} in UTC.
+ */
+@Repository
+public class SellerSalesRollupRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public SellerSalesRollupRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> increment(long sellerId, SalesGranularity granularity, ZonedDateTime bucketStart, long productId,
+                                long orders, long units, BigDecimal gross,
+                                long refunds, long refundedUnits, BigDecimal refundedAmount) {
+        return databaseClient.sql("insert into seller_sales_rollups (seller_id, granularity, bucket_start, " +
+                        "product_id, orders_count, units, gross, refunds_count, refunded_units, refunded_amount) " +
+                        "values (:sellerId, :granularity, :bucketStart, :productId, :orders, :units, :gross, " +
+                        ":refunds, :refundedUnits, :refundedAmount) " +
+                        "on conflict (seller_id, granularity, bucket_start, product_id) do update set " +
+                        "orders_count = seller_sales_rollups.orders_count + excluded.orders_count, " +
+                        "units = seller_sales_rollups.units + excluded.units, " +
+                        "gross = seller_sales_rollups.gross + excluded.gross, " +
+                        "refunds_count = seller_sales_rollups.refunds_count + excluded.refunds_count, " +
+                        "refunded_units = seller_sales_rollups.refunded_units + excluded.refunded_units, " +
+                        "refunded_amount = seller_sales_rollups.refunded_amount + excluded.refunded_amount")
+                .bind("sellerId", sellerId)
+                .bind("granularity", granularity.name())
+                .bind("bucketStart", toUtc(bucketStart))
+                .bind("productId", productId)
+                .bind("orders", orders)
+                .bind("units", units)
+                .bind("gross", gross)
+                .bind("refunds", refunds)
+                .bind("refundedUnits", refundedUnits)
+                .bind("refundedAmount", refundedAmount)
+                .then();
+    }
+
+    public Flux<SalesRollupDto> findProductRollups(long sellerId, SalesGranularity granularity, long productId,
+                                                   ZonedDateTime from, ZonedDateTime to) {
+        return databaseClient.sql("select product_id, bucket_start, orders_count, units, gross, " +
+                        "refunds_count, refunded_units, refunded_amount from seller_sales_rollups " +
+                        "where seller_id = :sellerId and granularity = :granularity and product_id = :productId " +
+                        "and bucket_start >= :from and bucket_start < :to order by bucket_start")
+                .bind("sellerId", sellerId)
+                .bind("granularity", granularity.name())
+                .bind("productId", productId)
+                .bind("from", toUtc(from))
+                .bind("to", toUtc(to))
+                .map(row -> toSalesRollupDto(row, row.get("product_id", Long.class)))
+                .all();
+    }
+
+    public Flux<SalesRollupDto> findSellerRollups(long sellerId, SalesGranularity granularity,
+                                                  ZonedDateTime from, ZonedDateTime to) {
+        return databaseClient.sql("select bucket_start, sum(orders_count)::bigint as orders_count, " +
+                        "sum(units)::bigint as units, sum(gross) as gross, " +
+                        "sum(refunds_count)::bigint as refunds_count, sum(refunded_units)::bigint as refunded_units, " +
+                        "sum(refunded_amount) as refunded_amount " +
+                        "from seller_sales_rollups where seller_id = :sellerId and granularity = :granularity " +
+                        "and bucket_start >= :from and bucket_start < :to " +
+                        "group by bucket_start order by bucket_start")
+                .bind("sellerId", sellerId)
+                .bind("granularity", granularity.name())
+                .bind("from", toUtc(from))
+                .bind("to", toUtc(to))
+                .map(row -> toSalesRollupDto(row, null))
+                .all();
+    }
+
+    private static SalesRollupDto toSalesRollupDto(Readable row, Long productId) {
+        return new SalesRollupDto(
+                productId,
+                row.get("bucket_start", LocalDateTime.class).atZone(ZoneOffset.UTC),
+                row.get("orders_count", Long.class),
+                row.get("units", Long.class),
+                row.get("gross", BigDecimal.class),
+                row.get("refunds_count", Long.class),
+                row.get("refunded_units", Long.class),
+                row.get("refunded_amount", BigDecimal.class)
+        );
+    }
+
+    private static LocalDateTime toUtc(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.scriptrid.orderservicereactive.security;
+
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.common.security.JwtVerifier;
+
+/**
+ * Reactive counterpart of {@link ru.scriptrid.common.security.JwtAuthorizationFilter}: puts the
+ * {@link JwtAuthenticationToken} of the bearer token into the Reactor context instead of a thread-local.
+ * Not a bean, so that WebFlux does not also register it outside the security filter chain.
+ */
+@Slf4j
+public class JwtAuthorizationWebFilter implements WebFilter {
+
+    private final JwtVerifier jwtVerifier;
+
+    public JwtAuthorizationWebFilter(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader != null && !authHeader.isBlank() && authHeader.startsWith("Bearer ")) {
+            String jwt = authHeader.substring(7);
+            if (jwt.isBlank()) {
+                return badRequest(exchange);
+            }
+            JwtAuthenticationToken authenticationToken;
+            try {
+                authenticationToken = jwtVerifier.verify(jwt);
+            } catch (JwtException e) {
+                log.warn("Invalid JWT token: {}", e.getMessage());
+                return badRequest(exchange);
+            }
+            return chain.filter(exchange)
+                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticationToken));
+        }
+        return chain.filter(exchange);
+    }
+
+    private static Mono<Void> badRequest(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+        return exchange.getResponse().setComplete();
+    }
+}
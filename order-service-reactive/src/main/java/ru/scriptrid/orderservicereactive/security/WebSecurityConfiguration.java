@@ -0,0 +1,51 @@
+package ru.scriptrid.orderservicereactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.controller.CommonBusinessExceptionHandler;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.common.security.JwtVerifier;
+
+/**
+ * Only the servlet-free parts of common are imported: its {@code JwtAuthorizationFilter} and virtual-thread
+ * configuration are servlet-specific.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@Import({JwtService.class, JwtVerifier.class, ServiceWebClientFactory.class, CommonBusinessExceptionHandler.class})
+public class WebSecurityConfiguration {
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http, JwtVerifier jwtVerifier) {
+        return http
+                .csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                .logout().disable()
+                .cors()
+                .and()
+                .authorizeExchange()
+                .pathMatchers("/error").permitAll()
+                .anyExchange().authenticated()
+                .and()
+                .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+
+                .and()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(new JwtAuthorizationWebFilter(jwtVerifier), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+}
@@ -0,0 +1,135 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps the monthly range partitions of {@code orders} in place: creates partitions ahead of time and detaches
+ * partitions older than the hot window, so indexes and vacuum only have to deal with recent orders.
+ */
+@Service
+@Slf4j
+public class OrderPartitionService {
+    private static final String PARENT_TABLE = "orders";
+    private static final String PARTITION_PREFIX = "orders_p";
+    private static final String ARCHIVE_PREFIX = "orders_archive_";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final DatabaseClient databaseClient;
+    private final int monthsAhead;
+    private final int hotMonths;
+    private final String archiveTablespace;
+
+    public OrderPartitionService(DatabaseClient databaseClient,
+                                 @Value("${orders.partitions.months-ahead}") int monthsAhead,
+                                 @Value("${orders.partitions.hot-months}") int hotMonths,
+                                 @Value("${orders.partitions.archive-tablespace:}") String archiveTablespace) {
+        this.databaseClient = databaseClient;
+        this.monthsAhead = monthsAhead;
+        this.hotMonths = hotMonths;
+        this.archiveTablespace = archiveTablespace;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createPartitions().subscribe(null, this::onMaintenanceError);
+    }
+
+    @Scheduled(cron = "${orders.partitions.cron}")
+    public void maintainPartitions() {
+        createPartitions().then(archivePartitions()).subscribe(null, this::onMaintenanceError);
+    }
+
+    public Mono<Void> createPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        return isPartitioned().flatMap(partitioned -> {
+            if (!partitioned) {
+                log.warn("Table \"{}\" is not partitioned, partition maintenance is skipped", PARENT_TABLE);
+                return Mono.empty();
+            }
+            return Flux.range(0, monthsAhead + 1)
+                    .map(current::plusMonths)
+                    .concatMap(month -> createPartition(month).onErrorResume(e -> {
+                        log.error("Unable to create partition of \"{}\" for {}", PARENT_TABLE, month, e);
+                        return Mono.empty();
+                    }))
+                    .then();
+        });
+    }
+
+    public Mono<Void> archivePartitions() {
+        YearMonth oldestHot = YearMonth.now(ZoneOffset.UTC).minusMonths(hotMonths - 1L);
+        return isPartitioned()
+                .filter(partitioned -> partitioned)
+                .flatMapMany(partitioned -> getPartitions())
+                .concatMap(partition -> {
+                    YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+                    if (!month.isBefore(oldestHot)) {
+                        return Mono.empty();
+                    }
+                    return archivePartition(partition, month).onErrorResume(e -> {
+                        log.error("Unable to archive partition \"{}\"", partition, e);
+                        return Mono.empty();
+                    });
+                })
+                .then();
+    }
+
+    private Mono<Void> createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+        return execute("create table if not exists " + partition + " partition of " + PARENT_TABLE +
+                " for values from ('" + month.atDay(1) + " 00:00:00+00') to ('" + month.plusMonths(1).atDay(1) +
+                " 00:00:00+00')")
+                .doOnSuccess(ignored -> log.debug("Partition \"{}\" is in place", partition));
+    }
+
+    private Mono<Void> archivePartition(String partition, YearMonth month) {
+        String archive = ARCHIVE_PREFIX + month.format(SUFFIX_FORMAT);
+        Mono<Void> archived = execute("alter table " + PARENT_TABLE + " detach partition " + partition)
+                .then(execute("alter table " + partition + " rename to " + archive));
+        if (!archiveTablespace.isBlank()) {
+            archived = archived.then(execute("alter table " + archive + " set tablespace " + archiveTablespace));
+        }
+        return archived
+                .doOnSuccess(ignored -> log.info("Partition \"{}\" was detached and archived as \"{}\"", partition, archive));
+    }
+
+    private void onMaintenanceError(Throwable e) {
+        log.error("Partition maintenance of \"{}\" failed", PARENT_TABLE, e);
+    }
+
+    private Mono<Void> execute(String sql) {
+        return databaseClient.sql(sql).then();
+    }
+
+    private Mono<Boolean> isPartitioned() {
+        return databaseClient.sql("select relkind::text from pg_class " +
+                        "where relname = :table and relnamespace = current_schema()::regnamespace")
+                .bind("table", PARENT_TABLE)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .any("p"::equals);
+    }
+
+    private Flux<String> getPartitions() {
+        return databaseClient.sql("select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "join pg_class p on p.oid = i.inhparent " +
+                        "where p.relname = :table and c.relname like :prefix order by c.relname")
+                .bind("table", PARENT_TABLE)
+                .bind("prefix", PARTITION_PREFIX + "%")
+                .map(row -> row.get(0, String.class))
+                .all();
+    }
+}
@@ -0,0 +1,263 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.dto.*;
+import ru.scriptrid.common.exception.FrozenOrganizationException;
+import ru.scriptrid.common.exception.FrozenUserException;
+import ru.scriptrid.common.exception.InvalidOwnerException;
+import ru.scriptrid.common.exception.InvalidPageCursorException;
+import ru.scriptrid.common.exception.OrganizationNotFoundByIdException;
+import ru.scriptrid.common.paging.HistoryWindow;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservicereactive.exceptions.*;
+import ru.scriptrid.orderservicereactive.model.dto.OrderCreateDto;
+import ru.scriptrid.orderservicereactive.model.dto.OrderHistoryQuery;
+import ru.scriptrid.orderservicereactive.model.dto.OrderPageDto;
+import ru.scriptrid.orderservicereactive.model.entity.OrderEntity;
+import ru.scriptrid.orderservicereactive.repository.OrderRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class OrderService {
+    private static final Duration REFUND_PERIOD = Duration.ofDays(1);
+
+    private final OrderRepository orderRepository;
+    private final WebProductService webProductService;
+    private final WebUserService webUserService;
+    private final WebOrganizationService webOrganizationService;
+    private final SalesRollupService salesRollupService;
+    private final TransactionalOperator transactionalOperator;
+    private final BigDecimal commission;
+
+    public OrderService(WebProductService webProductService,
+                        WebUserService webUserService,
+                        @Value("${orders.commission}") BigDecimal commission, WebOrganizationService webOrganizationService,
+                        OrderRepository orderRepository, SalesRollupService salesRollupService,
+                        TransactionalOperator transactionalOperator) {
+        this.webProductService = webProductService;
+        this.webUserService = webUserService;
+        this.commission = commission;
+        this.webOrganizationService = webOrganizationService;
+        this.orderRepository = orderRepository;
+        this.salesRollupService = salesRollupService;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<OrderDto> addOrder(OrderCreateDto dto, JwtAuthenticationToken token) {
+        return webProductService.getDto(dto.productId())
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.warn("Product with id \"{}\" not found", dto.productId());
+                    return Mono.error(new ProductNotFoundForOrderException(dto.productId()));
+                }))
+                .flatMap(product -> {
+                    if (product.quantityInStock() < dto.quantity()) {
+                        log.warn("Error during reservation: insufficient quantity of product by id \"{}\": expected: {} found: {}",
+                                product.id(), dto.quantity(), product.quantityInStock());
+                        return Mono.error(new ReservationException(dto.productId(), dto.quantity()));
+                    }
+                    return getSeller(product)
+                            .flatMap(seller -> detached(reserveAndPay(dto, product, seller.id(), token.getId())));
+                });
+    }
+
+    private Mono<UserDto> getSeller(ProductDto product) {
+        return webOrganizationService.getDto(product.organizationId())
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.warn("Seller organization with id \"{}\" not found", product.organizationId());
+                    return Mono.error(new OrganizationNotFoundByIdException(product.organizationId()));
+                }))
+                .flatMap(sellersOrganization -> {
+                    if (sellersOrganization.isFrozen()) {
+                        log.warn("Seller organization with id \"{}\" is frozen", sellersOrganization.id());
+                        return Mono.error(new FrozenOrganizationException(sellersOrganization.id()));
+                    }
+                    return webUserService.getDto(sellersOrganization.ownerId())
+                            .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                                    "Owner of organization " + sellersOrganization.id() + " not found")));
+                })
+                .flatMap(seller -> {
+                    if (seller.isFrozen()) {
+                        log.warn("Seller user with id \"{}\" is frozen", seller.id());
+                        return Mono.error(new FrozenUserException(seller.id()));
+                    }
+                    return Mono.just(seller);
+                });
+    }
+
+    private Mono<OrderDto> reserveAndPay(OrderCreateDto dto, ProductDto product, long sellerId, long customerId) {
+        return webProductService.reserveProduct(dto.productId(), dto.quantity())
+                .then(Mono.defer(() -> {
+                    log.info("Product with id \"{}\" was reserved in quantity {}", dto.productId(), dto.quantity());
+                    return addReservedOrder(dto, product, sellerId, customerId);
+                }));
+    }
+
+    private Mono<OrderDto> addReservedOrder(OrderCreateDto dto, ProductDto product, long sellerId, long customerId) {
+        BigDecimal actualPrice = product.price().multiply(product.priceModifier());
+        BigDecimal total = actualPrice.multiply(BigDecimal.valueOf(dto.quantity()));
+        BigDecimal sellersIncome = total.subtract(total.multiply(commission));
+        return webUserService.transferMoney(new TransactionCreateDto(customerId, sellerId, total, sellersIncome))
+                .flatMap(transactionDto -> addPaidReservedOrder(dto, product, transactionDto))
+                .onErrorResume(e -> {
+                    log.info("Returning product with id \"{}\" in quantity \"{}\"", product.id(), dto.quantity());
+                    return webProductService.returnProduct(dto.productId(), dto.quantity()).then(Mono.error(e));
+                });
+    }
+
+    private Mono<OrderDto> addPaidReservedOrder(OrderCreateDto dto, ProductDto product, TransactionDto transactionDto) {
+        return Mono.defer(() -> orderRepository.save(toOrderEntity(product, dto.quantity(), transactionDto)))
+                .flatMap(order -> salesRollupService.recordOrder(order).thenReturn(order))
+                .as(transactionalOperator::transactional)
+                .map(this::toOrderDto)
+                .onErrorResume(e -> {
+                    log.info("Returning money by transaction id \"{}\"", transactionDto.id());
+                    return webUserService.returnMoney(transactionDto.id()).then(Mono.error(e));
+                });
+    }
+
+    public Mono<OrderDto> refundOrder(long customerId, long orderId, ZonedDateTime timeOfRequest) {
+        return orderRepository.findRecentById(orderId, timeOfRequest.minus(REFUND_PERIOD))
+                .switchIfEmpty(Mono.defer(() -> getOrderById(orderId)))
+                .flatMap(order -> {
+                    if (order.getIsReturned()) {
+                        log.warn("The order with id \"{}\" already refunded", orderId);
+                        return Mono.error(new OrderAlreadyRefundedException(orderId));
+                    }
+                    if (customerId != order.getCustomerId()) {
+                        log.warn("The user with id \"{}\" is not the customer of order with id \"{}\"", customerId, orderId);
+                        return Mono.error(new InvalidCustomerException(order.getId(), customerId));
+                    }
+                    if (Duration.between(order.getTimeOfOrder(), timeOfRequest).compareTo(REFUND_PERIOD) > 0) {
+                        log.warn("The time since order with id \"{}\" is greater than  day", orderId);
+                        return Mono.error(new RefundTimeException(Duration.between(timeOfRequest, order.getTimeOfOrder())));
+                    }
+                    return detached(returnOrder(order, timeOfRequest));
+                });
+    }
+
+    private Mono<OrderDto> returnOrder(OrderEntity order, ZonedDateTime timeOfRequest) {
+        return webProductService.returnProduct(order.getProductId(), order.getQuantityOfProduct())
+                .then(webUserService.returnMoney(order.getTransactionId()))
+                .flatMap(returningTransaction -> orderRepository
+                        .markReturned(order.getId(), order.getTimeOfOrder(), returningTransaction.id())
+                        .flatMap(updated -> {
+                            if (updated == 0) {
+                                log.warn("The order with id \"{}\" already refunded", order.getId());
+                                return Mono.error(new OrderAlreadyRefundedException(order.getId()));
+                            }
+                            order.setIsReturned(true);
+                            order.setReturningTransactionId(returningTransaction.id());
+                            return salesRollupService.recordRefund(order, timeOfRequest);
+                        })
+                        .as(transactionalOperator::transactional))
+                .then(Mono.fromSupplier(() -> toOrderDto(order)));
+    }
+
+    public Mono<OrderDto> getOrder(JwtAuthenticationToken token, Long orderId) {
+        return getOrderById(orderId).flatMap(order -> {
+            if (token.getId() != order.getCustomerId() && !token.isAdmin()) {
+                log.warn("User with id \"{}\" is not an owner of order with id \"{}\"", token.getId(), orderId);
+                return Mono.error(new InvalidOwnerException(orderId, order.getCustomerId(), token.getId()));
+            }
+            return Mono.just(toOrderDto(order));
+        });
+    }
+
+
+    private OrderDto toOrderDto(OrderEntity entity) {
+        return new OrderDto(
+                entity.getId(),
+                entity.getTimeOfOrder(),
+                entity.getTransactionId(),
+                entity.getProductId(),
+                entity.getCustomerId(),
+                entity.getSellerId(),
+                entity.getQuantityOfProduct(),
+                entity.getProductPrice(),
+                entity.getTotalAmount(),
+                entity.getIsReturned(),
+                entity.getReturningTransactionId()
+        );
+    }
+
+    private OrderEntity toOrderEntity(ProductDto product, int quantity, TransactionDto dto) {
+        OrderEntity entity = new OrderEntity();
+        entity.setCustomerId(dto.sourceId());
+        entity.setSellerId(dto.destinationId());
+        entity.setProductId(product.id());
+        entity.setTransactionId(dto.id());
+        entity.setProductPrice(product.price());
+        entity.setQuantityOfProduct(quantity);
+        entity.setTotalAmount(dto.sourceDelta().multiply(BigDecimal.valueOf(-1)));
+        entity.setTimeOfOrder(ZonedDateTime.now());
+        return entity;
+    }
+
+    public Mono<OrderPageDto> getOrders(@Nullable Long customerId, @Nullable Long sellerId, @Nullable Long productId,
+                                        OrderHistoryQuery query) {
+        if (filters(customerId, sellerId, productId) > 1) {
+            log.warn("Orders were asked for by several of customer \"{}\", seller \"{}\" and product \"{}\"",
+                    customerId, sellerId, productId);
+            return Mono.error(new ConflictingOrderFiltersException());
+        }
+        HistoryWindow window;
+        try {
+            window = HistoryWindow.of(query.from(), query.to(), query.beforeTime(), query.beforeId(), query.size());
+        } catch (InvalidPageCursorException e) {
+            return Mono.error(e);
+        }
+
+        Flux<OrderEntity> orders;
+        if (customerId != null) {
+            orders = orderRepository.findPageByCustomerId(customerId, window.from(), window.beforeTime(),
+                    window.beforeId(), window.limit());
+        } else if (sellerId != null) {
+            orders = orderRepository.findPageBySellerId(sellerId, window.from(), window.beforeTime(),
+                    window.beforeId(), window.limit());
+        } else if (productId != null) {
+            orders = orderRepository.findPageByProductId(productId, window.from(), window.beforeTime(),
+                    window.beforeId(), window.limit());
+        } else {
+            orders = orderRepository.findPage(window.from(), window.beforeTime(), window.beforeId(), window.limit());
+        }
+        return orders.collectList().map(page -> window.page(page, OrderEntity::getTimeOfOrder, OrderEntity::getId,
+                (rows, nextBeforeTime, nextBeforeId) -> new OrderPageDto(rows.stream().map(this::toOrderDto).toList(),
+                        nextBeforeTime, nextBeforeId)));
+    }
+
+    private static int filters(@Nullable Long... ids) {
+        int given = 0;
+        for (Long id : ids) {
+            if (id != null) {
+                given++;
+            }
+        }
+        return given;
+    }
+
+    private Mono<OrderEntity> getOrderById(long orderId) {
+        return orderRepository.findById(orderId).switchIfEmpty(Mono.defer(() -> {
+            log.warn("The order with id \"{}\" not found", orderId);
+            return Mono.error(new OrderNotFoundException(orderId));
+        }));
+    }
+
+    /**
+     * Once another service's state has been touched, the chain has to end in a saved order or a compensation
+     * even if the client disconnects, so it runs on its own subscription that ignores downstream cancellation.
+     */
+    private static <T> Mono<T> detached(Mono<T> mono) {
+        return Mono.defer(() -> Mono.fromFuture(mono.toFuture(), true));
+    }
+}
@@ -0,0 +1,64 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.exception.InvalidOwnerException;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservicereactive.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservicereactive.model.dto.SalesRollupQuery;
+import ru.scriptrid.orderservicereactive.model.entity.OrderEntity;
+import ru.scriptrid.orderservicereactive.model.entity.SalesGranularity;
+import ru.scriptrid.orderservicereactive.repository.SellerSalesRollupRepository;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private final SellerSalesRollupRepository rollupRepository;
+
+    public SalesRollupService(SellerSalesRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Must be subscribed inside the transaction that saves the order.
+     */
+    public Mono<Void> recordOrder(OrderEntity order) {
+        return Flux.fromArray(SalesGranularity.values())
+                .concatMap(granularity -> rollupRepository.increment(order.getSellerId(), granularity,
+                        granularity.bucketOf(order.getTimeOfOrder()), order.getProductId(),
+                        1, order.getQuantityOfProduct(), order.getTotalAmount(),
+                        0, 0, BigDecimal.ZERO))
+                .then();
+    }
+
+    /**
+     * Must be subscribed inside the transaction that marks the order as returned.
+     */
+    public Mono<Void> recordRefund(OrderEntity order, ZonedDateTime timeOfRefund) {
+        return Flux.fromArray(SalesGranularity.values())
+                .concatMap(granularity -> rollupRepository.increment(order.getSellerId(), granularity,
+                        granularity.bucketOf(timeOfRefund), order.getProductId(),
+                        0, 0, BigDecimal.ZERO,
+                        1, order.getQuantityOfProduct(), order.getTotalAmount()))
+                .then();
+    }
+
+    public Flux<SalesRollupDto> getRollups(JwtAuthenticationToken token, long sellerId, SalesRollupQuery query) {
+        if (token.getId() != sellerId && !token.isAdmin()) {
+            log.warn("User with id \"{}\" tried to get sales of seller with id \"{}\"", token.getId(), sellerId);
+            return Flux.error(new InvalidOwnerException(sellerId, sellerId, token.getId()));
+        }
+        ZonedDateTime from = query.granularity().bucketOf(query.from());
+        if (query.productId() != null) {
+            return rollupRepository.findProductRollups(sellerId, query.granularity(), query.productId(),
+                    from, query.to());
+        }
+        return rollupRepository.findSellerRollups(sellerId, query.granularity(), from, query.to());
+    }
+}
@@ -0,0 +1,38 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+
+@Service
+@Slf4j
+public class WebOrganizationService {
+
+    private final WebClient webClient;
+
+    public WebOrganizationService(@Value("${services.organization.uri}") String organizationServiceUri, ServiceWebClientFactory clientFactory) {
+        this.webClient = clientFactory.create("organization-service", organizationServiceUri);
+    }
+
+    public Mono<OrganizationDto> getDto(long id) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> (JwtAuthenticationToken) context.getAuthentication())
+                .flatMap(token -> webClient.get()
+                        .uri("/api/organization/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
+                        .retrieve()
+                        .bodyToMono(OrganizationDto.class))
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode().equals(HttpStatus.NOT_FOUND) ? Mono.empty() : Mono.error(e));
+    }
+
+}
@@ -0,0 +1,74 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.dto.ProductDto;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.orderservicereactive.exceptions.ReservationException;
+import ru.scriptrid.orderservicereactive.exceptions.UnableToGetProductException;
+
+@Service
+@Slf4j
+public class WebProductService {
+
+    private final WebClient webClient;
+    private final JwtService jwtService;
+
+    public WebProductService(@Value("${services.product.uri}") String productServiceUri, ServiceWebClientFactory clientFactory, JwtService jwtService) {
+        this.webClient = clientFactory.create("product-service", productServiceUri);
+        this.jwtService = jwtService;
+    }
+
+    public Mono<ProductDto> getDto(long productId) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> (JwtAuthenticationToken) context.getAuthentication())
+                .flatMap(token -> webClient.get()
+                        .uri("/api/product/{id}", productId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
+                        .retrieve()
+                        .bodyToMono(ProductDto.class))
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode().equals(HttpStatus.NOT_FOUND) ? Mono.empty() : Mono.error(e))
+                .onErrorMap(WebClientResponseException.BadRequest.class,
+                        e -> new UnableToGetProductException(e, productId));
+    }
+
+    public Mono<Void> reserveProduct(long productId, int quantity) {
+        return Mono.fromSupplier(jwtService::generateServiceToken)
+                .flatMap(jwt -> webClient.put()
+                        .uri("/api/product/{id}/reserve", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromValue(quantity))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
+                        .retrieve()
+                        .toBodilessEntity())
+                .onErrorMap(WebClientResponseException.BadRequest.class, e -> {
+                    log.warn("Error during reservation", e);
+                    return new ReservationException(e, productId, quantity);
+                })
+                .then();
+    }
+
+    public Mono<Void> returnProduct(long productId, int quantity) {
+        return Mono.fromSupplier(jwtService::generateServiceToken)
+                .flatMap(jwt -> webClient.put()
+                        .uri("/api/product/{id}/return", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromValue(quantity))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
+                        .retrieve()
+                        .toBodilessEntity())
+                .then();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.scriptrid.orderservicereactive.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.dto.TransactionCreateDto;
+import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.orderservicereactive.exceptions.FailedTransactionException;
+
+
+@Service
+@Slf4j
+public class WebUserService {
+
+    private final WebClient webClient;
+    private final JwtService jwtService;
+
+    public WebUserService(@Value("${services.user.uri}") String userServiceUri, ServiceWebClientFactory clientFactory, JwtService jwtService) {
+        this.webClient = clientFactory.create("user-service", userServiceUri);
+        this.jwtService = jwtService;
+    }
+
+    public Mono<UserDto> getDto(long id) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> (JwtAuthenticationToken) context.getAuthentication())
+                .flatMap(token -> webClient.get()
+                        .uri("/api/user/{id}", id)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
+                        .retrieve()
+                        .bodyToMono(UserDto.class))
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode().equals(HttpStatus.NOT_FOUND) ? Mono.empty() : Mono.error(e));
+    }
+
+    public Mono<TransactionDto> transferMoney(TransactionCreateDto dto) {
+        return Mono.fromSupplier(jwtService::generateServiceToken)
+                .flatMap(jwt -> webClient.put()
+                        .uri("/api/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromValue(dto))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
+                        .retrieve()
+                        .bodyToMono(TransactionDto.class))
+                .onErrorMap(WebClientResponseException.BadRequest.class, e -> {
+                    log.warn("Transaction failed during processing order");
+                    return new FailedTransactionException(e, dto.customerId(), dto.sellerId(), dto.total(),
+                            dto.sellersIncome());
+                });
+    }
+
+    public Mono<TransactionDto> returnMoney(long transactionId) {
+        return Mono.fromSupplier(jwtService::generateServiceToken)
+                .flatMap(jwt -> webClient.put()
+                        .uri("/api/transaction/transfer/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromValue(transactionId))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
+                        .retrieve()
+                        .bodyToMono(TransactionDto.class));
+    }
+}
@@ -0,0 +1,45 @@
+-- Reactive build of order-service over the same database. Without Hibernate's schema update, every table it
+-- uses is declared here, matching the schema order-service creates, so either build can start against an empty
+-- database or one created by the other.
+create sequence if not exists order_entity_seq start with 1 increment by 50;
+
+create table if not exists orders
+(
+    order_id                 bigint                      not null,
+    transaction_id           bigint,
+    product_id               bigint                      not null,
+    customer_id              bigint                      not null,
+    seller_id                bigint                      not null,
+    quantity_of_product      integer                     not null,
+    product_price            numeric(19, 2),
+    total                    numeric(19, 2)              not null,
+    time_of_order            timestamp(6) with time zone not null,
+    is_returned              boolean                     not null,
+    returning_transaction_id bigint,
+    primary key (order_id, time_of_order)
+) partition by range (time_of_order);
+
+create table if not exists orders_default partition of orders default;
+
+create index if not exists idx_orders_customer_time on orders (customer_id, time_of_order);
+create index if not exists idx_orders_seller_time on orders (seller_id, time_of_order);
+create index if not exists idx_orders_product_time on orders (product_id, time_of_order);
+create index if not exists idx_orders_time on orders (time_of_order);
+
+create table if not exists seller_sales_rollups
+(
+    seller_id       bigint         not null,
+    granularity     varchar(8)     not null,
+    bucket_start    timestamp(6)   not null,
+    product_id      bigint         not null,
+    orders_count    bigint         not null,
+    units           bigint         not null,
+    gross           numeric(19, 2) not null,
+    refunds_count   bigint         not null,
+    refunded_units  bigint         not null,
+    refunded_amount numeric(19, 2) not null,
+    primary key (bucket_start, granularity, product_id, seller_id)
+);
+
+create index if not exists idx_seller_sales_rollups_seller_bucket
+    on seller_sales_rollups (seller_id, granularity, bucket_start);
@@ -0,0 +1,13 @@
+package ru.scriptrid.orderservicereactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class OrderServiceReactiveApplicationTests {
+
+    @Test
+    void contextLoads() {
+    }
+
+}
@@ -6,7 +6,10 @@ plugins {
 
 group = "ru.scriptrid"
 version = "0.0.1-SNAPSHOT"
-java.sourceCompatibility = JavaVersion.VERSION_17
+java.sourceCompatibility = JavaVersion.VERSION_21
+
+extra["lombok.version"] = "1.18.30"
+extra["postgresql.version"] = "42.6.0"
 
 configurations {
     compileOnly {
@@ -31,6 +34,8 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
+    testImplementation("io.zonky.test:embedded-postgres:2.0.7")
+    testImplementation(enforcedPlatform("io.zonky.test.postgres:embedded-postgres-binaries-bom:15.5.0"))
 }
 
 tasks.withType<Test> {
@@ -1,10 +1,12 @@
 package ru.scriptrid.orderservice.controller;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 import ru.scriptrid.common.exception.FrozenUserException;
+import ru.scriptrid.common.exception.InvalidPageCursorException;
 import ru.scriptrid.orderservice.exceptions.*;
 
 
@@ -31,6 +33,14 @@ public class BusinessExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Orders older than {@code orders.partitions.hot-months} are moved out of the orders table.
+     */
+    @ExceptionHandler(OrderArchivedException.class)
+    public ResponseEntity<Void> onArchivedOrder() {
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
     @ExceptionHandler(RefundTimeException.class)
     public ResponseEntity<Void> onRefundTimeRanOut() {
         return ResponseEntity.badRequest().build();
@@ -50,4 +60,14 @@ public class BusinessExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<Void> onUnableToGetProduct() {
         return ResponseEntity.badRequest().build();
     }
+
+    @ExceptionHandler(ConflictingOrderFiltersException.class)
+    public ResponseEntity<Void> onConflictingOrderFilters() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(InvalidPageCursorException.class)
+    public ResponseEntity<Void> onInvalidPageCursor() {
+        return ResponseEntity.badRequest().build();
+    }
 }
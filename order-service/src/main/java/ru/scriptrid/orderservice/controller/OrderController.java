@@ -1,15 +1,17 @@
 package ru.scriptrid.orderservice.controller;
 
+import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import ru.scriptrid.common.dto.OrderDto;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.orderservice.model.dto.OrderCreateDto;
+import ru.scriptrid.orderservice.model.dto.OrderHistoryQuery;
+import ru.scriptrid.orderservice.model.dto.OrderPageDto;
 import ru.scriptrid.orderservice.service.OrderService;
 
 import java.time.ZonedDateTime;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/order/")
@@ -28,8 +30,11 @@ public class OrderController {
 
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping
-    public List<OrderDto> getOrders(@RequestParam(required = false) Long userId) {
-        return orderService.getOrders(userId);
+    public OrderPageDto getOrders(@RequestParam(required = false) Long userId,
+                                  @RequestParam(required = false) Long sellerId,
+                                  @RequestParam(required = false) Long productId,
+                                  @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(userId, sellerId, productId, query);
     }
 
     @GetMapping("/{orderId}")
@@ -38,8 +43,15 @@ public class OrderController {
     }
 
     @GetMapping("/my")
-    public List<OrderDto> getUserOrders(@AuthenticationPrincipal JwtAuthenticationToken token) {
-        return orderService.getOrders(token.getId());
+    public OrderPageDto getUserOrders(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                      @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(token.getId(), null, null, query);
+    }
+
+    @GetMapping("/my/sales")
+    public OrderPageDto getUserSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                     @Valid OrderHistoryQuery query) {
+        return orderService.getOrders(null, token.getId(), null, query);
     }
 
     @PutMapping("/{orderId}/refund")
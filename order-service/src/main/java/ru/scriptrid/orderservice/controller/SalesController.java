@@ -0,0 +1,38 @@
+package ru.scriptrid.orderservice.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservice.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservice.model.dto.SalesRollupQuery;
+import ru.scriptrid.orderservice.service.SalesRollupService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/order/sales/")
+public class SalesController {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping("/{sellerId}")
+    public List<SalesRollupDto> getSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                         @PathVariable long sellerId,
+                                         @Valid SalesRollupQuery query) {
+        return salesRollupService.getRollups(token, sellerId, query);
+    }
+
+    @GetMapping("/my")
+    public List<SalesRollupDto> getUserSales(@AuthenticationPrincipal JwtAuthenticationToken token,
+                                             @Valid SalesRollupQuery query) {
+        return salesRollupService.getRollups(token, token.getId(), query);
+    }
+}
@@ -0,0 +1,4 @@
+package ru.scriptrid.orderservice.exceptions;
+
+public class ConflictingOrderFiltersException extends RuntimeException {
+}
@@ -0,0 +1,12 @@
+package ru.scriptrid.orderservice.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class OrderArchivedException extends RuntimeException {
+    private final long orderId;
+
+    public OrderArchivedException(long orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.scriptrid.orderservice.model.dto;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.ZonedDateTime;
+
+@Validated
+public record OrderHistoryQuery(
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        ZonedDateTime from,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        ZonedDateTime to,
+
+        @Nullable
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        ZonedDateTime beforeTime,
+
+        @Nullable
+        Long beforeId,
+
+        @Nullable
+        @Min(1)
+        @Max(500)
+        Integer size
+) {
+}
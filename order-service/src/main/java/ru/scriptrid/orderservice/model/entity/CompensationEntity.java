@@ -0,0 +1,53 @@
+package ru.scriptrid.orderservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "compensations", indexes = {
+        @Index(name = "idx_compensations_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class CompensationEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compensation_entity_seq")
+    @SequenceGenerator(name = "compensation_entity_seq")
+    @Column(name = "compensation_id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private CompensationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 8)
+    private CompensationStatus status = CompensationStatus.PENDING;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    @Column(name = "return_id", length = 64)
+    private String returnId;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private ZonedDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
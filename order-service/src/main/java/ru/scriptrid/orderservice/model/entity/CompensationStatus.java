@@ -0,0 +1,6 @@
+package ru.scriptrid.orderservice.model.entity;
+
+public enum CompensationStatus {
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package ru.scriptrid.orderservice.model.entity;
+
+public enum CompensationType {
+    RETURN_PRODUCT,
+    RETURN_MONEY
+}
@@ -0,0 +1,20 @@
+package ru.scriptrid.orderservice.model.entity;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum SalesGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    SalesGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ZonedDateTime bucketOf(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneOffset.UTC).truncatedTo(unit);
+    }
+}
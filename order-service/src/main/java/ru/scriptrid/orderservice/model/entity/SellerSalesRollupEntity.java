@@ -0,0 +1,36 @@
+package ru.scriptrid.orderservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "seller_sales_rollups", indexes = {
+        @Index(name = "idx_seller_sales_rollups_seller_bucket", columnList = "seller_id, granularity, bucket_start")
+})
+public class SellerSalesRollupEntity {
+    @EmbeddedId
+    private SellerSalesRollupId id;
+
+    @Column(name = "orders_count", nullable = false)
+    private Long ordersCount = 0L;
+
+    @Column(name = "units", nullable = false)
+    private Long units = 0L;
+
+    @Column(name = "gross", nullable = false, precision = 19, scale = 2)
+    private BigDecimal gross = BigDecimal.ZERO;
+
+    @Column(name = "refunds_count", nullable = false)
+    private Long refundsCount = 0L;
+
+    @Column(name = "refunded_units", nullable = false)
+    private Long refundedUnits = 0L;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+}
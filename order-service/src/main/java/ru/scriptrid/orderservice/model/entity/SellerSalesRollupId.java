@@ -0,0 +1,31 @@
+package ru.scriptrid.orderservice.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@Embeddable
+public class SellerSalesRollupId implements Serializable {
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private SalesGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private ZonedDateTime bucketStart;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+}
@@ -0,0 +1,20 @@
+package ru.scriptrid.orderservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.orderservice.model.entity.CompensationEntity;
+import ru.scriptrid.orderservice.model.entity.CompensationStatus;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface CompensationRepository extends JpaRepository<CompensationEntity, Long> {
+
+    @Query(value = "select * from compensations where status = 'PENDING' and next_attempt_at <= ?1 " +
+            "order by next_attempt_at limit ?2 for update skip locked", nativeQuery = true)
+    List<CompensationEntity> lockDue(ZonedDateTime now, int limit);
+
+    long countByStatus(CompensationStatus status);
+}
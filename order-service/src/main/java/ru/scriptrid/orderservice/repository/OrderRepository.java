@@ -1,12 +1,37 @@
 package ru.scriptrid.orderservice.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.scriptrid.orderservice.model.entity.OrderEntity;
 
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
-    List<OrderEntity> findByCustomerId(Long customerId);
-}
\ No newline at end of file
+
+    @Query("select o from OrderEntity o where o.id = ?1 and o.timeOfOrder >= ?2")
+    Optional<OrderEntity> findRecentById(long id, ZonedDateTime since);
+
+    @Query("select o from OrderEntity o where o.customerId = ?1 and o.timeOfOrder >= ?2 and o.timeOfOrder <= ?3 " +
+            "and (o.timeOfOrder < ?3 or o.id < ?4) order by o.timeOfOrder desc, o.id desc")
+    List<OrderEntity> findPageByCustomerId(long customerId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                           long beforeId, Pageable pageable);
+
+    @Query("select o from OrderEntity o where o.sellerId = ?1 and o.timeOfOrder >= ?2 and o.timeOfOrder <= ?3 " +
+            "and (o.timeOfOrder < ?3 or o.id < ?4) order by o.timeOfOrder desc, o.id desc")
+    List<OrderEntity> findPageBySellerId(long sellerId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                         long beforeId, Pageable pageable);
+
+    @Query("select o from OrderEntity o where o.productId = ?1 and o.timeOfOrder >= ?2 and o.timeOfOrder <= ?3 " +
+            "and (o.timeOfOrder < ?3 or o.id < ?4) order by o.timeOfOrder desc, o.id desc")
+    List<OrderEntity> findPageByProductId(long productId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                          long beforeId, Pageable pageable);
+
+    @Query("select o from OrderEntity o where o.timeOfOrder >= ?1 and o.timeOfOrder <= ?2 " +
+            "and (o.timeOfOrder < ?2 or o.id < ?3) order by o.timeOfOrder desc, o.id desc")
+    List<OrderEntity> findPage(ZonedDateTime from, ZonedDateTime beforeTime, long beforeId, Pageable pageable);
+}
@@ -0,0 +1,51 @@
+package ru.scriptrid.orderservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.orderservice.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservice.model.entity.SalesGranularity;
+import ru.scriptrid.orderservice.model.entity.SellerSalesRollupEntity;
+import ru.scriptrid.orderservice.model.entity.SellerSalesRollupId;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface SellerSalesRollupRepository extends JpaRepository<SellerSalesRollupEntity, SellerSalesRollupId> {
+
+    @Modifying
+    @Query(value = "insert into seller_sales_rollups (seller_id, granularity, bucket_start, product_id, " +
+            "orders_count, units, gross, refunds_count, refunded_units, refunded_amount) " +
+            "values (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10) " +
+            "on conflict (seller_id, granularity, bucket_start, product_id) do update set " +
+            "orders_count = seller_sales_rollups.orders_count + excluded.orders_count, " +
+            "units = seller_sales_rollups.units + excluded.units, " +
+            "gross = seller_sales_rollups.gross + excluded.gross, " +
+            "refunds_count = seller_sales_rollups.refunds_count + excluded.refunds_count, " +
+            "refunded_units = seller_sales_rollups.refunded_units + excluded.refunded_units, " +
+            "refunded_amount = seller_sales_rollups.refunded_amount + excluded.refunded_amount",
+            nativeQuery = true)
+    void increment(long sellerId, String granularity, ZonedDateTime bucketStart, long productId,
+                   long orders, long units, BigDecimal gross,
+                   long refunds, long refundedUnits, BigDecimal refundedAmount);
+
+    @Query("select new ru.scriptrid.orderservice.model.dto.SalesRollupDto(r.id.productId, r.id.bucketStart, " +
+            "r.ordersCount, r.units, r.gross, r.refundsCount, r.refundedUnits, r.refundedAmount) " +
+            "from SellerSalesRollupEntity r where r.id.sellerId = ?1 and r.id.granularity = ?2 " +
+            "and r.id.productId = ?3 and r.id.bucketStart >= ?4 and r.id.bucketStart < ?5 " +
+            "order by r.id.bucketStart")
+    List<SalesRollupDto> findProductRollups(long sellerId, SalesGranularity granularity, long productId,
+                                            ZonedDateTime from, ZonedDateTime to);
+
+    @Query("select new ru.scriptrid.orderservice.model.dto.SalesRollupDto(r.id.bucketStart, " +
+            "sum(r.ordersCount), sum(r.units), sum(r.gross), " +
+            "sum(r.refundsCount), sum(r.refundedUnits), sum(r.refundedAmount)) " +
+            "from SellerSalesRollupEntity r where r.id.sellerId = ?1 and r.id.granularity = ?2 " +
+            "and r.id.bucketStart >= ?3 and r.id.bucketStart < ?4 " +
+            "group by r.id.bucketStart order by r.id.bucketStart")
+    List<SalesRollupDto> findSellerRollups(long sellerId, SalesGranularity granularity,
+                                           ZonedDateTime from, ZonedDateTime to);
+}
@@ -0,0 +1,197 @@
+package ru.scriptrid.orderservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.scriptrid.orderservice.model.entity.CompensationEntity;
+import ru.scriptrid.orderservice.model.entity.CompensationStatus;
+import ru.scriptrid.orderservice.model.entity.CompensationType;
+import ru.scriptrid.orderservice.repository.CompensationRepository;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Undoes a product reservation or a money transfer of a failed checkout. A compensation that fails is written to
+ * the {@code compensations} journal in its own transaction, so it survives the rollback of the checkout, and is
+ * retried in the background with exponential backoff until it succeeds or runs out of attempts. A retry may repeat
+ * a call that did go through but whose answer was lost: a product return carries its compensation's return id as an
+ * idempotency key that product-service applies once, and money returns are idempotent in user-service.
+ */
+@Service
+@Slf4j
+public class CompensationService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final CompensationRepository compensationRepository;
+    private final WebProductService webProductService;
+    private final WebUserService webUserService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+    private final AtomicLong outstanding = new AtomicLong();
+
+    public CompensationService(CompensationRepository compensationRepository,
+                               WebProductService webProductService,
+                               WebUserService webUserService,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${orders.compensations.batch-size}") int batchSize,
+                               @Value("${orders.compensations.max-attempts}") int maxAttempts,
+                               @Value("${orders.compensations.initial-backoff}") Duration initialBackoff,
+                               @Value("${orders.compensations.max-backoff}") Duration maxBackoff,
+                               @Value("${orders.compensations.claim-timeout}") Duration claimTimeout) {
+        this.compensationRepository = compensationRepository;
+        this.webProductService = webProductService;
+        this.webUserService = webUserService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+        Gauge.builder("order.compensations.outstanding", outstanding, AtomicLong::get)
+                .description("Compensations waiting to be retried")
+                .register(meterRegistry);
+    }
+
+    public void returnProduct(long productId, int quantity) {
+        String returnId = UUID.randomUUID().toString();
+        try {
+            webProductService.returnProduct(productId, quantity, returnId);
+        } catch (RuntimeException e) {
+            log.warn("Unable to return product with id \"{}\" in quantity {}, scheduling a retry", productId, quantity, e);
+            CompensationEntity compensation = newCompensation(CompensationType.RETURN_PRODUCT, e);
+            compensation.setProductId(productId);
+            compensation.setQuantity(quantity);
+            compensation.setReturnId(returnId);
+            record(compensation);
+        }
+    }
+
+    public void returnMoney(long transactionId) {
+        try {
+            webUserService.returnMoney(transactionId);
+        } catch (RuntimeException e) {
+            log.warn("Unable to return money by transaction id \"{}\", scheduling a retry", transactionId, e);
+            CompensationEntity compensation = newCompensation(CompensationType.RETURN_MONEY, e);
+            compensation.setTransactionId(transactionId);
+            record(compensation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.compensations.poll-delay}")
+    public void retryDue() {
+        List<CompensationEntity> due;
+        do {
+            ZonedDateTime now = ZonedDateTime.now();
+            due = transactionTemplate.execute(status -> claimDue(now));
+            retry(due, now);
+        } while (due.size() == batchSize);
+        outstanding.set(compensationRepository.countByStatus(CompensationStatus.PENDING));
+    }
+
+    /**
+     * Locks a batch of due compensations, skipping rows another instance is already working on, and moves their next
+     * attempt {@code orders.compensations.claim-timeout} ahead, so they stay claimed once the transaction commits and
+     * the calls are made without holding locks or a connection. If the instance dies meanwhile, they are retried
+     * after the claim times out.
+     */
+    private List<CompensationEntity> claimDue(ZonedDateTime now) {
+        List<CompensationEntity> due = compensationRepository.lockDue(now, batchSize);
+        due.forEach(compensation -> compensation.setNextAttemptAt(now.plus(claimTimeout)));
+        return due;
+    }
+
+    /**
+     * Each compensation is retried on its own, with its own return id, so one whose outcome is unknown never takes
+     * others along. The outcomes are written in one transaction at the end.
+     */
+    private void retry(List<CompensationEntity> due, ZonedDateTime now) {
+        List<CompensationEntity> done = new ArrayList<>();
+        List<CompensationEntity> failed = new ArrayList<>();
+        for (CompensationEntity compensation : due) {
+            try {
+                if (compensation.getType() == CompensationType.RETURN_PRODUCT) {
+                    webProductService.returnProduct(compensation.getProductId(), compensation.getQuantity(),
+                            compensation.getReturnId());
+                    log.info("Product with id \"{}\" was returned in quantity {} on retry",
+                            compensation.getProductId(), compensation.getQuantity());
+                } else {
+                    webUserService.returnMoney(compensation.getTransactionId());
+                    log.info("Money by transaction id \"{}\" was returned on retry", compensation.getTransactionId());
+                }
+                done.add(compensation);
+            } catch (RuntimeException e) {
+                onRetryFailure(compensation, e, now);
+                failed.add(compensation);
+            }
+        }
+        if (!due.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                compensationRepository.deleteAll(done);
+                compensationRepository.saveAll(failed);
+            });
+        }
+    }
+
+    private void onRetryFailure(CompensationEntity compensation, RuntimeException e, ZonedDateTime now) {
+        int attempts = compensation.getAttempts() + 1;
+        compensation.setAttempts(attempts);
+        compensation.setLastError(describe(e));
+        if (attempts >= maxAttempts) {
+            compensation.setStatus(CompensationStatus.FAILED);
+            log.error("Compensation with id \"{}\" failed after {} attempts and needs manual handling",
+                    compensation.getId(), attempts, e);
+        } else {
+            compensation.setNextAttemptAt(now.plus(backoff(attempts)));
+            log.warn("Compensation with id \"{}\" failed on attempt {}: {}", compensation.getId(), attempts, e.toString());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private CompensationEntity newCompensation(CompensationType type, RuntimeException cause) {
+        ZonedDateTime now = ZonedDateTime.now();
+        CompensationEntity compensation = new CompensationEntity();
+        compensation.setType(type);
+        compensation.setAttempts(1);
+        compensation.setCreatedAt(now);
+        compensation.setNextAttemptAt(now.plus(initialBackoff));
+        compensation.setLastError(describe(cause));
+        return compensation;
+    }
+
+    private void record(CompensationEntity compensation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> compensationRepository.save(compensation));
+            outstanding.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Unable to journal {} compensation for product \"{}\" in quantity {} / transaction \"{}\"",
+                    compensation.getType(), compensation.getProductId(), compensation.getQuantity(),
+                    compensation.getTransactionId(), e);
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        String description = e.toString();
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+}
@@ -0,0 +1,185 @@
+package ru.scriptrid.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the monthly range partitions of {@code orders} in place: creates partitions ahead of time and detaches
+ * partitions older than the hot window, so indexes and vacuum only have to deal with recent orders.
+ * <p>
+ * Orders of a month that has no partition yet, when a run was missed, land in {@code orders_default}; creating the
+ * partition then moves them into it. Detached partitions are kept as {@code orders_archive_yyyy_MM} tables, which
+ * lookups and the order history no longer see: an order found there is answered as {@link #isArchived archived}.
+ */
+@Service
+@Slf4j
+public class OrderPartitionService {
+    private static final String PARENT_TABLE = "orders";
+    private static final String DEFAULT_PARTITION = "orders_default";
+    private static final String PARTITION_PREFIX = "orders_p";
+    private static final String ARCHIVE_PREFIX = "orders_archive_";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int hotMonths;
+    private final String archiveTablespace;
+
+    public OrderPartitionService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${orders.partitions.months-ahead}") int monthsAhead,
+                                 @Value("${orders.partitions.hot-months}") int hotMonths,
+                                 @Value("${orders.partitions.archive-tablespace:}") String archiveTablespace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.hotMonths = hotMonths;
+        this.archiveTablespace = archiveTablespace;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createPartitions();
+    }
+
+    @Scheduled(cron = "${orders.partitions.cron}")
+    public void maintainPartitions() {
+        createPartitions();
+        archivePartitions();
+    }
+
+    public void createPartitions() {
+        if (!isPartitioned()) {
+            log.warn("Table \"{}\" is not partitioned, partition maintenance is skipped", PARENT_TABLE);
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartition(current.plusMonths(i));
+            } catch (DataAccessException e) {
+                log.error("Unable to create partition of \"{}\" for {}", PARENT_TABLE, current.plusMonths(i), e);
+            }
+        }
+    }
+
+    public void archivePartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth oldestHot = YearMonth.now(ZoneOffset.UTC).minusMonths(hotMonths - 1L);
+        for (String partition : getPartitions()) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT);
+            if (month.isBefore(oldestHot)) {
+                try {
+                    archivePartition(partition, month);
+                } catch (DataAccessException e) {
+                    log.error("Unable to archive partition \"{}\"", partition, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders of the month already in the default partition would violate its new constraint, so it is detached
+     * while they are moved. Writes to it are blocked until the transaction ends.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+        if (tableExists(partition)) {
+            return;
+        }
+        String from = month.atDay(1) + " 00:00:00+00";
+        String to = month.plusMonths(1).atDay(1) + " 00:00:00+00";
+        String create = "create table " + partition + " partition of " + PARENT_TABLE +
+                " for values from ('" + from + "') to ('" + to + "')";
+        String range = " where time_of_order >= ?::timestamptz and time_of_order < ?::timestamptz";
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tableExists(DEFAULT_PARTITION)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            jdbcTemplate.execute("lock table " + DEFAULT_PARTITION + " in exclusive mode");
+            Integer misplaced = jdbcTemplate.queryForObject(
+                    "select count(*) from " + DEFAULT_PARTITION + range, Integer.class, from, to);
+            if (misplaced == null || misplaced == 0) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            jdbcTemplate.execute("alter table " + PARENT_TABLE + " detach partition " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            jdbcTemplate.update("insert into " + partition + " select * from " + DEFAULT_PARTITION + range, from, to);
+            jdbcTemplate.update("delete from " + DEFAULT_PARTITION + range, from, to);
+            jdbcTemplate.execute("alter table " + PARENT_TABLE + " attach partition " + DEFAULT_PARTITION + " default");
+            log.warn("Moved {} orders from \"{}\" into the new partition \"{}\"", misplaced, DEFAULT_PARTITION,
+                    partition);
+        });
+        log.info("Partition \"{}\" was created", partition);
+    }
+
+    private void archivePartition(String partition, YearMonth month) {
+        String archive = ARCHIVE_PREFIX + month.format(SUFFIX_FORMAT);
+        jdbcTemplate.execute("alter table " + PARENT_TABLE + " detach partition " + partition);
+        jdbcTemplate.execute("alter table " + partition + " rename to " + archive);
+        if (!archiveTablespace.isBlank()) {
+            jdbcTemplate.execute("alter table " + archive + " set tablespace " + archiveTablespace);
+        }
+        log.info("Partition \"{}\" was detached and archived as \"{}\"", partition, archive);
+    }
+
+    /**
+     * Looks the order up by the primary key of every archived partition.
+     */
+    public boolean isArchived(long orderId) {
+        List<String> archives = jdbcTemplate.queryForList(
+                "select relname from pg_class where relname like ? and relkind = 'r' " +
+                        "and relnamespace = current_schema()::regnamespace",
+                String.class, ARCHIVE_PREFIX + "%");
+        if (archives.isEmpty()) {
+            return false;
+        }
+        String lookup = archives.stream()
+                .map(archive -> "select 1 from " + archive + " where order_id = ?")
+                .collect(Collectors.joining(" union all "));
+        Object[] ids = new Object[archives.size()];
+        Arrays.fill(ids, orderId);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select exists (" + lookup + ")", Boolean.class, ids));
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "select relkind::text from pg_class where relname = ? and relnamespace = current_schema()::regnamespace",
+                String.class, PARENT_TABLE);
+        return kinds.contains("p");
+    }
+
+    private List<String> getPartitions() {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "join pg_class p on p.oid = i.inhparent " +
+                        "where p.relname = ? and c.relname like ? order by c.relname",
+                String.class, PARENT_TABLE, PARTITION_PREFIX + "%");
+    }
+}
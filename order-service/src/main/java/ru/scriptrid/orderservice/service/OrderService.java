@@ -1,43 +1,57 @@
 package ru.scriptrid.orderservice.service;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.scriptrid.common.dto.*;
 import ru.scriptrid.common.exception.FrozenOrganizationException;
 import ru.scriptrid.common.exception.FrozenUserException;
 import ru.scriptrid.common.exception.InvalidOwnerException;
+import ru.scriptrid.common.paging.HistoryWindow;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.orderservice.exceptions.*;
 import ru.scriptrid.orderservice.model.dto.OrderCreateDto;
+import ru.scriptrid.orderservice.model.dto.OrderHistoryQuery;
+import ru.scriptrid.orderservice.model.dto.OrderPageDto;
 import ru.scriptrid.orderservice.model.entity.OrderEntity;
 import ru.scriptrid.orderservice.repository.OrderRepository;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.Comparator;
 import java.util.List;
 
 @Service
 @Slf4j
 public class OrderService {
+    private static final Duration REFUND_PERIOD = Duration.ofDays(1);
+
     private final OrderRepository orderRepository;
     private final WebProductService webProductService;
     private final WebUserService webUserService;
     private final WebOrganizationService webOrganizationService;
+    private final SalesRollupService salesRollupService;
+    private final CompensationService compensationService;
+    private final OrderPartitionService orderPartitionService;
     private final BigDecimal commission;
 
     public OrderService(WebProductService webProductService,
                         WebUserService webUserService,
                         @Value("${orders.commission}") BigDecimal commission, WebOrganizationService webOrganizationService,
-                        OrderRepository orderRepository) {
+                        OrderRepository orderRepository, SalesRollupService salesRollupService,
+                        CompensationService compensationService, OrderPartitionService orderPartitionService) {
         this.webProductService = webProductService;
         this.webUserService = webUserService;
         this.commission = commission;
         this.webOrganizationService = webOrganizationService;
         this.orderRepository = orderRepository;
+        this.salesRollupService = salesRollupService;
+        this.compensationService = compensationService;
+        this.orderPartitionService = orderPartitionService;
     }
 
     @Transactional
@@ -78,7 +92,7 @@ public class OrderService {
             return addPaidReservedOrder(dto, product, transactionDto);
         } catch (Throwable e) {
             log.info("Returning product with id \"{}\" in quantity \"{}\"", product.id(), dto.quantity());
-            webProductService.returnProduct(dto.productId(), dto.quantity());
+            compensationService.returnProduct(dto.productId(), dto.quantity());
             throw e;
         }
     }
@@ -86,22 +100,19 @@ public class OrderService {
     private OrderDto addPaidReservedOrder(OrderCreateDto dto, ProductDto product, TransactionDto transactionDto) {
         try {
             OrderEntity order = orderRepository.save(toOrderEntity(product, dto.quantity(), transactionDto));
+            salesRollupService.recordOrder(order);
             return toOrderDto(order);
         } catch (Throwable e) {
             log.info("Returning money by transaction id \"{}\"", transactionDto.id());
-            webUserService.returnMoney(transactionDto.id());
+            compensationService.returnMoney(transactionDto.id());
             throw e;
         }
     }
 
     @Transactional
     public OrderDto refundOrder(long customerId, long orderId, ZonedDateTime timeOfRequest) {
-        if (!orderRepository.existsById(orderId)) {
-            log.warn("The order with id \"{}\" not found", orderId);
-            throw new OrderNotFoundException(orderId);
-        }
-
-        OrderEntity order = getOrderById(orderId);
+        OrderEntity order = orderRepository.findRecentById(orderId, timeOfRequest.minus(REFUND_PERIOD))
+                .orElseGet(() -> getOrderById(orderId));
         if (order.getIsReturned()) {
             log.warn("The order with id \"{}\" already refunded", orderId);
             throw new OrderAlreadyRefundedException(orderId);
@@ -110,14 +121,15 @@ public class OrderService {
             log.warn("The user with id \"{}\" is not the customer of order with id \"{}\"", customerId, orderId);
             throw new InvalidCustomerException(order.getId(), customerId);
         }
-        if (Duration.between(order.getTimeOfOrder(), timeOfRequest).compareTo(Duration.ofDays(1)) > 0) {
+        if (Duration.between(order.getTimeOfOrder(), timeOfRequest).compareTo(REFUND_PERIOD) > 0) {
             log.warn("The time since order with id \"{}\" is greater than  day", orderId);
             throw new RefundTimeException(Duration.between(timeOfRequest, order.getTimeOfOrder()));
         }
-        webProductService.returnProduct(order.getProductId(), order.getQuantityOfProduct());
+        webProductService.returnProduct(order.getProductId(), order.getQuantityOfProduct(), null);
         TransactionDto returningTransaction = webUserService.returnMoney(order.getTransactionId());
         order.setIsReturned(true);
         order.setReturningTransactionId(returningTransaction.id());
+        salesRollupService.recordRefund(order, timeOfRequest);
 
         return toOrderDto(order);
     }
@@ -161,23 +173,52 @@ public class OrderService {
         return entity;
     }
 
-    public List<OrderDto> getOrders(Long userId) {
+    public OrderPageDto getOrders(@Nullable Long customerId, @Nullable Long sellerId, @Nullable Long productId,
+                                  OrderHistoryQuery query) {
+        if (filters(customerId, sellerId, productId) > 1) {
+            log.warn("Orders were asked for by several of customer \"{}\", seller \"{}\" and product \"{}\"",
+                    customerId, sellerId, productId);
+            throw new ConflictingOrderFiltersException();
+        }
+        HistoryWindow window = HistoryWindow.of(query.from(), query.to(), query.beforeTime(), query.beforeId(),
+                query.size());
+        Pageable pageable = PageRequest.of(0, window.limit());
+
         List<OrderEntity> orders;
-        if (userId == null) {
-            orders = orderRepository.findAll();
+        if (customerId != null) {
+            orders = orderRepository.findPageByCustomerId(customerId, window.from(), window.beforeTime(),
+                    window.beforeId(), pageable);
+        } else if (sellerId != null) {
+            orders = orderRepository.findPageBySellerId(sellerId, window.from(), window.beforeTime(),
+                    window.beforeId(), pageable);
+        } else if (productId != null) {
+            orders = orderRepository.findPageByProductId(productId, window.from(), window.beforeTime(),
+                    window.beforeId(), pageable);
         } else {
-            orders = orderRepository.findByCustomerId(userId);
+            orders = orderRepository.findPage(window.from(), window.beforeTime(), window.beforeId(), pageable);
+        }
+        return window.page(orders, OrderEntity::getTimeOfOrder, OrderEntity::getId,
+                (rows, nextBeforeTime, nextBeforeId) -> new OrderPageDto(rows.stream().map(this::toOrderDto).toList(),
+                        nextBeforeTime, nextBeforeId));
+    }
+
+    private static int filters(@Nullable Long... ids) {
+        int given = 0;
+        for (Long id : ids) {
+            if (id != null) {
+                given++;
+            }
         }
-        return orders
-                .stream()
-                .map(this::toOrderDto)
-                .sorted(Comparator.comparing(OrderDto::timeOfOrder).reversed())
-                .toList();
+        return given;
     }
 
     private OrderEntity getOrderById(long orderId) {
         return orderRepository.findById(orderId).orElseThrow(
                 () -> {
+                    if (orderPartitionService.isArchived(orderId)) {
+                        log.warn("The order with id \"{}\" is archived", orderId);
+                        return new OrderArchivedException(orderId);
+                    }
                     log.warn("The order with id \"{}\" not found", orderId);
                     return new OrderNotFoundException(orderId);
                 }
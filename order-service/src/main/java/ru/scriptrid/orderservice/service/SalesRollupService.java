@@ -0,0 +1,61 @@
+package ru.scriptrid.orderservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.scriptrid.common.exception.InvalidOwnerException;
+import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.orderservice.model.dto.SalesRollupDto;
+import ru.scriptrid.orderservice.model.dto.SalesRollupQuery;
+import ru.scriptrid.orderservice.model.entity.OrderEntity;
+import ru.scriptrid.orderservice.model.entity.SalesGranularity;
+import ru.scriptrid.orderservice.repository.SellerSalesRollupRepository;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+public class SalesRollupService {
+
+    private final SellerSalesRollupRepository rollupRepository;
+
+    public SalesRollupService(SellerSalesRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrder(OrderEntity order) {
+        for (SalesGranularity granularity : SalesGranularity.values()) {
+            rollupRepository.increment(order.getSellerId(), granularity.name(),
+                    granularity.bucketOf(order.getTimeOfOrder()), order.getProductId(),
+                    1, order.getQuantityOfProduct(), order.getTotalAmount(),
+                    0, 0, BigDecimal.ZERO);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRefund(OrderEntity order, ZonedDateTime timeOfRefund) {
+        for (SalesGranularity granularity : SalesGranularity.values()) {
+            rollupRepository.increment(order.getSellerId(), granularity.name(),
+                    granularity.bucketOf(timeOfRefund), order.getProductId(),
+                    0, 0, BigDecimal.ZERO,
+                    1, order.getQuantityOfProduct(), order.getTotalAmount());
+        }
+    }
+
+    public List<SalesRollupDto> getRollups(JwtAuthenticationToken token, long sellerId, SalesRollupQuery query) {
+        if (token.getId() != sellerId && !token.isAdmin()) {
+            log.warn("User with id \"{}\" tried to get sales of seller with id \"{}\"", token.getId(), sellerId);
+            throw new InvalidOwnerException(sellerId, sellerId, token.getId());
+        }
+        ZonedDateTime from = query.granularity().bucketOf(query.from());
+        if (query.productId() != null) {
+            return rollupRepository.findProductRollups(sellerId, query.granularity(), query.productId(),
+                    from, query.to());
+        }
+        return rollupRepository.findSellerRollups(sellerId, query.granularity(), from, query.to());
+    }
+}
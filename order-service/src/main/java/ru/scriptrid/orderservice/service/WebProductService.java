@@ -1,57 +1,158 @@
 package ru.scriptrid.orderservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
 import ru.scriptrid.common.dto.ProductDto;
-import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.common.security.JwtService;
 import ru.scriptrid.orderservice.exceptions.ReservationException;
 import ru.scriptrid.orderservice.exceptions.UnableToGetProductException;
 
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Service
 @Slf4j
 public class WebProductService {
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final long HEDGE_MIN_SAMPLES = 100;
 
     private final WebClient webClient;
     private final JwtService jwtService;
+    private final boolean hedgingEnabled;
+    private final Duration hedgeMinDelay;
+    private final Duration hedgeDefaultDelay;
+
+    private final ConcurrentHashMap<Long, Mono<ProductDto>> lookupsInFlight = new ConcurrentHashMap<>();
+    private final Timer lookupTimer;
+    private final Counter lookups;
+    private final Counter coalescedLookups;
+    private final Counter hedges;
+    private final Counter hedgeWins;
 
-    public WebProductService(@Value("${services.product.uri}") String productServiceUri, WebClient.Builder builder, JwtService jwtService) {
-        this.webClient = builder.baseUrl(productServiceUri).build();
+    public WebProductService(@Value("${services.product.uri}") String productServiceUri, ServiceWebClientFactory clientFactory, JwtService jwtService,
+                             MeterRegistry meterRegistry,
+                             @Value("${services.product.hedging.enabled}") boolean hedgingEnabled,
+                             @Value("${services.product.hedging.min-delay}") Duration hedgeMinDelay,
+                             @Value("${services.product.hedging.default-delay}") Duration hedgeDefaultDelay) {
+        this.webClient = clientFactory.create("product-service", productServiceUri);
         this.jwtService = jwtService;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeDefaultDelay = hedgeDefaultDelay;
+
+        this.lookupTimer = Timer.builder("order.product.lookup.latency")
+                .description("Latency of single product lookup calls to product-service")
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .register(meterRegistry);
+        this.lookups = meterRegistry.counter("order.product.lookup.requests");
+        this.coalescedLookups = meterRegistry.counter("order.product.lookup.coalesced");
+        this.hedges = meterRegistry.counter("order.product.lookup.hedges");
+        this.hedgeWins = meterRegistry.counter("order.product.lookup.hedge.wins");
+        Gauge.builder("order.product.lookup.coalescing.ratio", () -> ratio(coalescedLookups, lookups))
+                .register(meterRegistry);
+        Gauge.builder("order.product.lookup.hedge.win.ratio", () -> ratio(hedgeWins, hedges))
+                .register(meterRegistry);
     }
 
+    /**
+     * Concurrent lookups of the same product share one in-flight call. The shared call is made with the service's
+     * own token, as product reads do not depend on the caller.
+     */
     @Nullable
     public ProductDto getDto(long productId) {
+        lookups.increment();
+        AtomicBoolean started = new AtomicBoolean();
+        Mono<ProductDto> lookup = lookupsInFlight.computeIfAbsent(productId, id -> {
+            started.set(true);
+            return startLookup(id);
+        });
+        if (!started.get()) {
+            coalescedLookups.increment();
+        }
         try {
-            JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
+            return lookup.block();
+        } catch (WebClientResponseException.BadRequest e) {
+            throw new UnableToGetProductException(e, productId);
+        }
+    }
+
+    private Mono<ProductDto> startLookup(long productId) {
+        Mono<ProductDto> lookup = hedgingEnabled ? hedged(productId) : fetch(productId);
+        return lookup
+                .doFinally(signal -> lookupsInFlight.remove(productId))
+                .cache();
+    }
+
+    /**
+     * Fires a second call if the first has not answered within the recent p95 latency, so a slow product-service
+     * instance or a lost packet costs at most one extra call instead of a stalled checkout.
+     */
+    private Mono<ProductDto> hedged(long productId) {
+        Mono<ProductDto> hedge = Mono.delay(hedgeDelay())
+                .then(Mono.defer(() -> {
+                    hedges.increment();
+                    return fetch(productId).doOnSuccess(product -> hedgeWins.increment());
+                }));
+        return Mono.firstWithSignal(fetch(productId), hedge);
+    }
+
+    private Duration hedgeDelay() {
+        if (lookupTimer.count() < HEDGE_MIN_SAMPLES) {
+            return hedgeDefaultDelay;
+        }
+        for (ValueAtPercentile percentile : lookupTimer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == HEDGE_PERCENTILE) {
+                Duration delay = Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+                return delay.compareTo(hedgeMinDelay) < 0 ? hedgeMinDelay : delay;
+            }
+        }
+        return hedgeDefaultDelay;
+    }
+
+    /**
+     * A call cancelled because the other of a hedged pair answered first is timed until it was cancelled, so the
+     * calls slow enough to be hedged still count towards the p95 the hedge delay is taken from.
+     */
+    private Mono<ProductDto> fetch(long productId) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
             return webClient.get()
-                    .uri("/api/product/" + productId)
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
+                    .uri("/api/product/{id}", productId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
                     .retrieve()
                     .bodyToMono(ProductDto.class)
                     .onErrorResume(WebClientResponseException.class,
                             e -> e.getStatusCode().equals(HttpStatus.NOT_FOUND) ? Mono.empty() : Mono.error(e))
-                    .block();
-        } catch (WebClientResponseException.BadRequest e) {
-            throw new UnableToGetProductException(e, productId);
-        }
+                    .doFinally(signal -> sample.stop(lookupTimer));
+        });
+    }
+
+    private static double ratio(Counter part, Counter total) {
+        return total.count() == 0 ? 0 : part.count() / total.count();
     }
 
     public void reserveProduct(long productId, int quantity) {
         String jwt = jwtService.generateServiceToken();
         try {
             webClient.put()
-                    .uri("/api/product/" + productId + "/reserve")
+                    .uri("/api/product/{id}/reserve", productId)
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(BodyInserters.fromValue(quantity))
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
@@ -64,13 +165,21 @@ public class WebProductService {
         }
     }
 
-    public void returnProduct(long productId, int quantity) {
+    /**
+     * @param returnId sent as the idempotency key, so repeating the call with it returns the product only once
+     */
+    public void returnProduct(long productId, int quantity, @Nullable String returnId) {
         String jwt = jwtService.generateServiceToken();
         webClient.put()
-                .uri("/api/product/" + productId + "/return")
+                .uri("/api/product/{id}/return", productId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(BodyInserters.fromValue(quantity))
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt)
+                .headers(headers -> {
+                    if (returnId != null) {
+                        headers.set("Idempotency-Key", returnId);
+                    }
+                })
                 .retrieve()
                 .toBodilessEntity()
                 .block();
@@ -1,5 +1,6 @@
 package ru.scriptrid.orderservice.service;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -11,6 +12,8 @@ import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.client.UserStatusCache;
 import ru.scriptrid.common.dto.TransactionCreateDto;
 import ru.scriptrid.common.dto.TransactionDto;
 import ru.scriptrid.common.dto.UserDto;
@@ -18,6 +21,8 @@ import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.common.security.JwtService;
 import ru.scriptrid.orderservice.exceptions.FailedTransactionException;
 
+import java.util.Optional;
+
 
 @Service
 @Slf4j
@@ -25,16 +30,26 @@ public class WebUserService {
 
     private final WebClient webClient;
     private final JwtService jwtService;
+    @Nullable
+    private final UserStatusCache userStatusCache;
 
-    public WebUserService(@Value("${services.user.uri}") String productServiceUri, WebClient.Builder builder, JwtService jwtService) {
-        this.webClient = builder.baseUrl(productServiceUri).build();
+    public WebUserService(@Value("${services.user.uri}") String productServiceUri, ServiceWebClientFactory clientFactory, JwtService jwtService,
+                          Optional<UserStatusCache> userStatusCache) {
+        this.webClient = clientFactory.create("user-service", productServiceUri);
         this.jwtService = jwtService;
+        this.userStatusCache = userStatusCache.orElse(null);
     }
 
+    /**
+     * Answered by the {@link UserStatusCache} when it is enabled, otherwise by user-service with the token of the caller.
+     */
     public UserDto getDto(long id) {
+        if (userStatusCache != null) {
+            return userStatusCache.get(id);
+        }
         JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         return webClient.get()
-                .uri("/api/user/" + id)
+                .uri("/api/user/{id}", id)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
                 .retrieve()
                 .bodyToMono(UserDto.class)
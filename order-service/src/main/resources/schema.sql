@@ -0,0 +1,28 @@
+-- The orders table is range-partitioned by month on time_of_order. Hibernate cannot declare partitioned tables
+-- and does not see indexes on them, so the parent and its indexes are created here before the JPA schema update
+-- runs; monthly partitions are maintained by OrderPartitionService. An existing unpartitioned orders table is left
+-- untouched apart from the history indexes.
+create sequence if not exists order_entity_seq start with 1 increment by 50;
+
+create table if not exists orders
+(
+    order_id                 bigint                      not null,
+    transaction_id           bigint,
+    product_id               bigint                      not null,
+    customer_id              bigint                      not null,
+    seller_id                bigint                      not null,
+    quantity_of_product      integer                     not null,
+    product_price            numeric(19, 2),
+    total                    numeric(19, 2)              not null,
+    time_of_order            timestamp(6) with time zone not null,
+    is_returned              boolean                     not null,
+    returning_transaction_id bigint,
+    primary key (order_id, time_of_order)
+) partition by range (time_of_order);
+
+create table if not exists orders_default partition of orders default;
+
+create index if not exists idx_orders_customer_time on orders (customer_id, time_of_order);
+create index if not exists idx_orders_seller_time on orders (seller_id, time_of_order);
+create index if not exists idx_orders_product_time on orders (product_id, time_of_order);
+create index if not exists idx_orders_time on orders (time_of_order);
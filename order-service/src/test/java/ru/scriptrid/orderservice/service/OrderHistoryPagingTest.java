@@ -0,0 +1,115 @@
+package ru.scriptrid.orderservice.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.scriptrid.common.dto.OrderDto;
+import ru.scriptrid.common.exception.InvalidPageCursorException;
+import ru.scriptrid.orderservice.OrderServiceApplication;
+import ru.scriptrid.orderservice.exceptions.ConflictingOrderFiltersException;
+import ru.scriptrid.orderservice.model.dto.OrderHistoryQuery;
+import ru.scriptrid.orderservice.model.dto.OrderPageDto;
+import ru.scriptrid.orderservice.model.entity.OrderEntity;
+import ru.scriptrid.orderservice.repository.OrderRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the order history page by page, where many orders share a time of order and pages end amid them.
+ */
+@SpringBootTest(classes = OrderServiceApplication.class,
+        properties = {"services.organization.feed.enabled=false", "services.user.cache.enabled=false"})
+class OrderHistoryPagingTest {
+    private static final long SELLER_ID = 42;
+    private static final int TIMES = 3;
+    private static final int ORDERS_PER_TIME = 7;
+    private static final int PAGE_SIZE = 4;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void pagesThroughEqualTimesSkipAndRepeatNothing() {
+        ZonedDateTime now = ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<OrderEntity> saved = new ArrayList<>();
+        for (int time = 0; time < TIMES; time++) {
+            for (int i = 0; i < ORDERS_PER_TIME; i++) {
+                saved.add(orderRepository.save(order(now.minusMinutes(time))));
+            }
+        }
+        List<Long> expected = saved.stream()
+                .sorted(Comparator.comparing(OrderEntity::getTimeOfOrder).thenComparing(OrderEntity::getId).reversed())
+                .map(OrderEntity::getId)
+                .toList();
+
+        List<Long> walked = new ArrayList<>();
+        ZonedDateTime beforeTime = null;
+        Long beforeId = null;
+        int pages = 0;
+        do {
+            OrderPageDto page = orderService.getOrders(null, SELLER_ID, null,
+                    new OrderHistoryQuery(null, null, beforeTime, beforeId, PAGE_SIZE));
+            page.orders().stream().map(OrderDto::id).forEach(walked::add);
+            beforeTime = page.nextBeforeTime();
+            beforeId = page.nextBeforeId();
+            pages++;
+        } while (beforeId != null);
+
+        assertEquals(expected, walked);
+        assertEquals((TIMES * ORDERS_PER_TIME + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+    }
+
+    @Test
+    void halfACursorIsRejected() {
+        assertThrows(InvalidPageCursorException.class, () -> orderService.getOrders(null, SELLER_ID, null,
+                new OrderHistoryQuery(null, null, ZonedDateTime.now(), null, PAGE_SIZE)));
+        assertThrows(InvalidPageCursorException.class, () -> orderService.getOrders(null, SELLER_ID, null,
+                new OrderHistoryQuery(null, null, null, 1L, PAGE_SIZE)));
+    }
+
+    @Test
+    void severalFiltersAreRejected() {
+        assertThrows(ConflictingOrderFiltersException.class, () -> orderService.getOrders(1L, SELLER_ID, null,
+                new OrderHistoryQuery(null, null, null, null, PAGE_SIZE)));
+    }
+
+    private static OrderEntity order(ZonedDateTime timeOfOrder) {
+        OrderEntity order = new OrderEntity();
+        order.setTransactionId(1L);
+        order.setCustomerId(1L);
+        order.setSellerId(SELLER_ID);
+        order.setProductId(1L);
+        order.setQuantityOfProduct(1);
+        order.setProductPrice(BigDecimal.TEN);
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setTimeOfOrder(timeOfOrder);
+        return order;
+    }
+}
@@ -0,0 +1,174 @@
+package ru.scriptrid.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.dto.ProductDto;
+import ru.scriptrid.common.security.JwtService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link WebProductService} against a stub product-service whose latency is chosen per product and call.
+ */
+class WebProductServiceTest {
+    private static final long PRODUCT_ID = 7;
+    private static final Duration STALLED = Duration.ofSeconds(3);
+
+    private final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private volatile BiFunction<Long, Integer, Duration> latency = (productId, call) -> Duration.ZERO;
+    private DisposableServer server;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void startStub() {
+        meterRegistry = new SimpleMeterRegistry();
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/api/product/{id}", (request, response) -> {
+                    long productId = Long.parseLong(request.param("id"));
+                    int call = calls.computeIfAbsent(productId, id -> new AtomicInteger()).incrementAndGet();
+                    Duration delay = latency.apply(productId, call);
+                    String body = """
+                            {"id":%d,"productName":"product","description":"","organizationId":1,"price":10,\
+                            "quantityInStock":5,"tags":[],"specs":{}}""".formatted(productId);
+                    return Mono.delay(delay).then(response
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.just(body))
+                            .then());
+                }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.disposeNow();
+    }
+
+    @Test
+    void concurrentLookupsOfAProductShareOneCall() throws Exception {
+        latency = (productId, call) -> Duration.ofMillis(300);
+        WebProductService service = service(false, Duration.ofMillis(50));
+        int callers = 10;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ProductDto>> lookups = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return service.getDto(PRODUCT_ID);
+                }));
+            }
+            start.countDown();
+            for (Future<ProductDto> lookup : lookups) {
+                assertEquals(PRODUCT_ID, lookup.get(5, TimeUnit.SECONDS).id());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls(PRODUCT_ID));
+        assertEquals(callers - 1, meterRegistry.counter("order.product.lookup.coalesced").count());
+
+        awaitFinishedLookups(1);
+        service.getDto(PRODUCT_ID);
+        assertEquals(2, calls(PRODUCT_ID), "A finished call must not be shared with later lookups");
+    }
+
+    @Test
+    void stalledLookupIsHedgedAfterTheDefaultDelay() throws InterruptedException {
+        latency = (productId, call) -> productId == PRODUCT_ID && call == 1 ? STALLED : Duration.ZERO;
+        WebProductService service = service(true, Duration.ofMillis(100));
+        service.getDto(PRODUCT_ID + 1);
+        double hedges = meterRegistry.counter("order.product.lookup.hedges").count();
+        double hedgeWins = meterRegistry.counter("order.product.lookup.hedge.wins").count();
+        awaitFinishedLookups(calls(PRODUCT_ID + 1));
+
+        long start = System.nanoTime();
+        assertEquals(PRODUCT_ID, service.getDto(PRODUCT_ID).id());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(Duration.ofMillis(100)) >= 0, "Hedged before the delay: " + elapsed);
+        assertTrue(elapsed.compareTo(STALLED) < 0, "Waited for the stalled call: " + elapsed);
+        assertEquals(2, calls(PRODUCT_ID));
+        assertEquals(hedges + 1, meterRegistry.counter("order.product.lookup.hedges").count());
+        assertEquals(hedgeWins + 1, meterRegistry.counter("order.product.lookup.hedge.wins").count());
+        awaitFinishedLookups(calls(PRODUCT_ID + 1) + 2);
+        assertTrue(meterRegistry.timer("order.product.lookup.latency").max(TimeUnit.MILLISECONDS) >= 100,
+                "The cancelled call must be timed until it was cancelled");
+    }
+
+    @Test
+    void hedgeDelayFollowsTheRecentP95() throws InterruptedException {
+        latency = (productId, call) -> Duration.ofMillis(20);
+        WebProductService service = service(true, STALLED);
+        for (int i = 1; i <= 100; i++) {
+            service.getDto(PRODUCT_ID + i);
+            awaitFinishedLookups(i);
+        }
+        assertEquals(0, meterRegistry.counter("order.product.lookup.hedges").count(),
+                "Nothing should be hedged while calls are quicker than the default delay");
+
+        latency = (productId, call) -> productId == PRODUCT_ID && call == 1 ? STALLED : Duration.ofMillis(20);
+        long start = System.nanoTime();
+        service.getDto(PRODUCT_ID);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, "Hedge waited for the default delay: " + elapsed);
+        assertEquals(1, meterRegistry.counter("order.product.lookup.hedges").count());
+        assertEquals(1, meterRegistry.counter("order.product.lookup.hedge.wins").count());
+    }
+
+    private WebProductService service(boolean hedging, Duration defaultDelay) {
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateServiceToken()).thenReturn("token");
+        ServiceWebClientFactory clientFactory = new ServiceWebClientFactory(WebClient.builder(), meterRegistry, 10,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(1), Duration.ofSeconds(10), false,
+                false);
+        return new WebProductService("http://localhost:" + server.port(), clientFactory, jwtService, meterRegistry,
+                hedging, Duration.ofMillis(10), defaultDelay);
+    }
+
+    private int calls(long productId) {
+        AtomicInteger count = calls.get(productId);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Lookups waiting for a call return as soon as it answers, and the call is timed and forgotten just after; a
+     * lookup of the same product made in between still gets its answer.
+     */
+    private void awaitFinishedLookups(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.timer("order.product.lookup.latency").count() < count) {
+            assertTrue(System.nanoTime() < deadline, "Lookups were not timed");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package ru.scriptrid.ordersecrice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class OrganizationServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrganizationServiceApplication.class, args);
@@ -0,0 +1,29 @@
+package ru.scriptrid.ordersecrice.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.scriptrid.ordersecrice.service.OrganizationEventService;
+
+@RestController
+@RequestMapping("/api/organization/events")
+public class OrganizationEventController {
+
+    private final OrganizationEventService organizationEventService;
+
+    public OrganizationEventController(OrganizationEventService organizationEventService) {
+        this.organizationEventService = organizationEventService;
+    }
+
+    /**
+     * Server-sent events of the organization changes after {@code after}, or after {@code Last-Event-ID} when an
+     * event source reconnects.
+     */
+    @PreAuthorize("hasAuthority('ROLE_SERVICE')")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(@RequestParam(required = false) Long after,
+                                @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return organizationEventService.subscribe(after != null ? after : lastEventId);
+    }
+}
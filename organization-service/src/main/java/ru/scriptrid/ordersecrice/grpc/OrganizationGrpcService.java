@@ -0,0 +1,42 @@
+package ru.scriptrid.ordersecrice.grpc;
+
+import io.grpc.stub.StreamObserver;
+import org.springframework.stereotype.Service;
+import ru.scriptrid.common.grpc.GrpcCalls;
+import ru.scriptrid.common.grpc.ProtoMapper;
+import ru.scriptrid.common.grpc.api.Organization;
+import ru.scriptrid.common.grpc.api.OrganizationId;
+import ru.scriptrid.common.grpc.api.OrganizationInternalGrpc;
+import ru.scriptrid.common.grpc.api.OrganizationResult;
+import ru.scriptrid.ordersecrice.service.OrganizationService;
+
+/**
+ * The organization lookups product-service and order-service make, over gRPC.
+ */
+@Service
+public class OrganizationGrpcService extends OrganizationInternalGrpc.OrganizationInternalImplBase {
+
+    private final OrganizationService organizationService;
+
+    public OrganizationGrpcService(OrganizationService organizationService) {
+        this.organizationService = organizationService;
+    }
+
+    @Override
+    public void getOrganization(OrganizationId request, StreamObserver<Organization> responses) {
+        GrpcCalls.unary(responses,
+                () -> ProtoMapper.toProto(organizationService.getOrganizationDto(request.getId())),
+                GrpcCalls::commonStatus);
+    }
+
+    @Override
+    public StreamObserver<OrganizationId> getOrganizations(StreamObserver<OrganizationResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> OrganizationResult.newBuilder()
+                        .setId(request.getId())
+                        .setOrganization(ProtoMapper.toProto(organizationService.getOrganizationDto(request.getId())))
+                        .build(),
+                (request, failure) -> OrganizationResult.newBuilder().setId(request.getId()).setFailure(failure).build(),
+                GrpcCalls::commonStatus);
+    }
+}
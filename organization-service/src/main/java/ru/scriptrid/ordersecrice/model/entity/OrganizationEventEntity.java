@@ -0,0 +1,60 @@
+package ru.scriptrid.ordersecrice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import ru.scriptrid.common.dto.OrganizationEventType;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The outbox of organization status changes: written in the transaction of the change, numbered in commit order by
+ * the publisher, which fills in {@code sequence}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "organization_events", indexes = {
+        @Index(name = "idx_organization_events_sequence", columnList = "sequence", unique = true)
+})
+public class OrganizationEventEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organization_event_entity_seq")
+    @SequenceGenerator(name = "organization_event_entity_seq")
+    @Column(name = "event_id", nullable = false)
+    private Long id;
+
+    @Column(name = "sequence")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private OrganizationEventType type;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "owner", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "logo_url")
+    private String logoUrl;
+
+    @Column(name = "is_frozen", nullable = false)
+    private Boolean isFrozen;
+
+    @Column(name = "is_deleted", nullable = false)
+    private Boolean isDeleted;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "published_at")
+    private ZonedDateTime publishedAt;
+}
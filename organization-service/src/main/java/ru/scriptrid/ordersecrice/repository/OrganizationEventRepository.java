@@ -0,0 +1,43 @@
+package ru.scriptrid.ordersecrice.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.ordersecrice.model.entity.OrganizationEventEntity;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Repository
+public interface OrganizationEventRepository extends JpaRepository<OrganizationEventEntity, Long> {
+
+    /**
+     * Held until the transaction ends, so instances number their batches one after another.
+     */
+    @Query(value = "select 1 from pg_advisory_xact_lock(hashtext('organization_events'))", nativeQuery = true)
+    int lockNumbering();
+
+    @Query(value = "select * from organization_events where sequence is null " +
+            "order by event_id limit ?1 for update skip locked", nativeQuery = true)
+    List<OrganizationEventEntity> lockUnpublished(int limit);
+
+    @Query("select max(e.sequence) from OrganizationEventEntity e")
+    Long findMaxSequence();
+
+    @Query("select min(e.sequence) from OrganizationEventEntity e")
+    Long findMinSequence();
+
+    List<OrganizationEventEntity> findBySequenceGreaterThanOrderBySequence(long sequence, Pageable pageable);
+
+    long countBySequenceGreaterThan(long sequence);
+
+    /**
+     * Keeps the last published event, so the numbering goes on from it.
+     */
+    @Modifying
+    @Query("delete from OrganizationEventEntity e where e.publishedAt < ?1 " +
+            "and e.sequence < (select max(l.sequence) from OrganizationEventEntity l)")
+    int deletePublishedBefore(ZonedDateTime time);
+}
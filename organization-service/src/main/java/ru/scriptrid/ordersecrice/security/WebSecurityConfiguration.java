@@ -1,5 +1,6 @@
 package ru.scriptrid.ordersecrice.security;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -29,6 +30,8 @@ public class WebSecurityConfiguration {
                 .and()
                 .authorizeHttpRequests()
                 .requestMatchers("/error").permitAll()
+                // the request of the event feed was authorized already, its async dispatch carries no token
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .exceptionHandling()
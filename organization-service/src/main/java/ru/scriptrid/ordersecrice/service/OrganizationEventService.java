@@ -0,0 +1,290 @@
+package ru.scriptrid.ordersecrice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.dto.OrganizationEventDto;
+import ru.scriptrid.common.dto.OrganizationEventType;
+import ru.scriptrid.ordersecrice.model.entity.OrganizationEntity;
+import ru.scriptrid.ordersecrice.model.entity.OrganizationEventEntity;
+import ru.scriptrid.ordersecrice.repository.OrganizationEventRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the changes of organizations (freezes, deletions, edits and owner changes), so other services can keep
+ * a replica of their status instead of asking for an organization on every read.
+ * <p>
+ * A change is written to the {@code organization_events} outbox in the transaction that makes it. Every
+ * {@code organizations.events.publish-delay} each instance numbers the new events under a transaction-scoped advisory
+ * lock, so the batches of all instances are numbered and become visible in sequence order, which never leaves a gap
+ * for a subscriber to skip. Each instance then streams the outbox to its own subscribers, every one from the last
+ * sequence it was sent, so it gets the events whichever instance numbered them. A subscriber is written to by one
+ * delivery task at a time, so a slow client only holds up itself.
+ * <p>
+ * A subscriber passes the last sequence it has seen and gets the events after it, then {@code caught-up}, then the
+ * new events as they are published. When it is further behind than {@code organizations.events.max-backlog} events,
+ * or they were already deleted after {@code organizations.events.retention}, it gets {@code reset} with the current
+ * sequence instead and should drop its replica.
+ */
+@Service
+@Slf4j
+public class OrganizationEventService {
+    public static final String ORGANIZATION_EVENT = "organization";
+    public static final String CAUGHT_UP_EVENT = "caught-up";
+    public static final String RESET_EVENT = "reset";
+
+    private final OrganizationEventRepository organizationEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBacklog;
+    private final Duration emitterTimeout;
+    private final Duration retention;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OrganizationEventService(OrganizationEventRepository organizationEventRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${organizations.events.batch-size}") int batchSize,
+                                    @Value("${organizations.events.max-backlog}") int maxBacklog,
+                                    @Value("${organizations.events.emitter-timeout}") Duration emitterTimeout,
+                                    @Value("${organizations.events.retention}") Duration retention) {
+        this.organizationEventRepository = organizationEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBacklog = maxBacklog;
+        this.emitterTimeout = emitterTimeout;
+        this.retention = retention;
+        Gauge.builder("organization.events.subscribers", subscribers, List::size)
+                .description("Subscribers of the organization status feed")
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OrganizationEntity organization, OrganizationEventType type) {
+        OrganizationEventEntity event = new OrganizationEventEntity();
+        event.setType(type);
+        event.setOrganizationId(organization.getId());
+        event.setName(organization.getName());
+        event.setOwnerId(organization.getOwnerId());
+        event.setDescription(organization.getDescription());
+        event.setLogoUrl(organization.getLogoUrl());
+        event.setIsFrozen(organization.getIsFrozen());
+        event.setIsDeleted(organization.getIsDeleted());
+        event.setCreatedAt(ZonedDateTime.now());
+        organizationEventRepository.save(event);
+    }
+
+    /**
+     * Numbers the new events, then wakes the subscribers of this instance that are behind, whichever instance
+     * numbered the events they miss.
+     */
+    @Scheduled(fixedDelayString = "${organizations.events.publish-delay}")
+    public void publish() {
+        Integer numbered;
+        do {
+            numbered = transactionTemplate.execute(status -> numberBatch());
+        } while (numbered != null && numbered == batchSize);
+        Long last = organizationEventRepository.findMaxSequence();
+        long latest = last == null ? 0 : last;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastSequence < latest) {
+                wake(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Runs under the advisory lock, so the batches of all instances are numbered and committed one after another.
+     */
+    private int numberBatch() {
+        organizationEventRepository.lockNumbering();
+        List<OrganizationEventEntity> events = organizationEventRepository.lockUnpublished(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Long last = organizationEventRepository.findMaxSequence();
+        long sequence = last == null ? 0 : last;
+        ZonedDateTime now = ZonedDateTime.now();
+        for (OrganizationEventEntity event : events) {
+            event.setSequence(++sequence);
+            event.setPublishedAt(now);
+        }
+        log.debug("Published {} organization events up to {}", events.size(), sequence);
+        return events.size();
+    }
+
+    public SseEmitter subscribe(@Nullable Long after) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> drop(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(e -> drop(subscriber));
+        Long last = organizationEventRepository.findMaxSequence();
+        long current = last == null ? 0 : last;
+        if (after == null || after > current || !hasBacklog(after)) {
+            subscriber.lastSequence = current;
+            subscriber.resetPending = true;
+        } else {
+            subscriber.lastSequence = after;
+        }
+        subscribers.add(subscriber);
+        wake(subscriber);
+        return subscriber.emitter;
+    }
+
+    private boolean hasBacklog(long after) {
+        Long first = organizationEventRepository.findMinSequence();
+        return (first == null || first <= after + 1)
+                && organizationEventRepository.countBySequenceGreaterThan(after) <= maxBacklog;
+    }
+
+    /**
+     * Hands the subscriber to a delivery task unless one is already running for it.
+     */
+    private void wake(Subscriber subscriber) {
+        if (subscriber.open && subscriber.delivering.compareAndSet(false, true)) {
+            deliveries.execute(() -> deliver(subscriber));
+        }
+    }
+
+    /**
+     * Sends the subscriber whatever it has not got yet: the reset, the events after its last sequence, read from
+     * the outbox, {@code caught-up} once it first reached the end of it, and a heartbeat when one is due.
+     */
+    private void deliver(Subscriber subscriber) {
+        try {
+            if (subscriber.resetPending) {
+                if (!sendEvent(subscriber, SseEmitter.event().name(RESET_EVENT)
+                        .id(String.valueOf(subscriber.lastSequence)))) {
+                    return;
+                }
+                subscriber.resetPending = false;
+            }
+            List<OrganizationEventEntity> events;
+            do {
+                events = organizationEventRepository.findBySequenceGreaterThanOrderBySequence(
+                        subscriber.lastSequence, PageRequest.ofSize(batchSize));
+                for (OrganizationEventEntity event : events) {
+                    if (!send(subscriber, toOrganizationEventDto(event))) {
+                        return;
+                    }
+                }
+            } while (events.size() == batchSize);
+            if (!subscriber.caughtUp) {
+                if (!sendEvent(subscriber, SseEmitter.event().name(CAUGHT_UP_EVENT)
+                        .id(String.valueOf(subscriber.lastSequence)))) {
+                    return;
+                }
+                subscriber.caughtUp = true;
+            }
+            if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                sendEvent(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not deliver organization events to a subscriber, retrying with the next batch", e);
+        } finally {
+            subscriber.delivering.set(false);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, OrganizationEventDto event) {
+        if (!sendEvent(subscriber, SseEmitter.event()
+                .name(ORGANIZATION_EVENT)
+                .id(String.valueOf(event.sequence()))
+                .data(event))) {
+            return false;
+        }
+        subscriber.lastSequence = event.sequence();
+        return true;
+    }
+
+    private boolean sendEvent(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.open) {
+            return false;
+        }
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping a subscriber of the organization feed", e);
+            drop(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        subscriber.open = false;
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Keeps idle connections open through proxies and lets subscribers notice a dead one.
+     */
+    @Scheduled(fixedDelayString = "${organizations.events.heartbeat}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            wake(subscriber);
+        }
+    }
+
+    @Scheduled(cron = "${organizations.events.cleanup-cron}")
+    public void deleteOldEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                organizationEventRepository.deletePublishedBefore(ZonedDateTime.now().minus(retention)));
+        log.info("Deleted {} organization events older than {}", deleted, retention);
+    }
+
+    private static OrganizationEventDto toOrganizationEventDto(OrganizationEventEntity event) {
+        return new OrganizationEventDto(event.getSequence(), event.getType(), new OrganizationDto(
+                event.getOrganizationId(),
+                event.getName(),
+                event.getIsFrozen(),
+                event.getIsDeleted(),
+                event.getLogoUrl(),
+                event.getOwnerId(),
+                event.getDescription()
+        ));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveries.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean delivering = new AtomicBoolean();
+        private volatile long lastSequence;
+        private volatile boolean resetPending;
+        private volatile boolean caughtUp;
+        private volatile boolean heartbeatDue;
+        private volatile boolean open = true;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
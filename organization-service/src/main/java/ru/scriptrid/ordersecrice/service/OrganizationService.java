@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.scriptrid.common.dto.OrganizationDto;
+import ru.scriptrid.common.dto.OrganizationEventType;
 import ru.scriptrid.common.exception.*;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 import ru.scriptrid.ordersecrice.model.dto.EditOrganizationDto;
@@ -23,12 +24,15 @@ public class OrganizationService {
     private final RequestOrganizationRepository requestOrganizationRepository;
     private final OrganizationRepository organizationRepository;
     private final RequestOrganizationService requestOrganizationService;
+    private final OrganizationEventService organizationEventService;
 
     public OrganizationService(OrganizationRepository organizationRepository, @Lazy RequestOrganizationService requestOrganizationService,
-                               RequestOrganizationRepository requestOrganizationRepository) { //TODO polish
+                               RequestOrganizationRepository requestOrganizationRepository,
+                               OrganizationEventService organizationEventService) { //TODO polish
         this.organizationRepository = organizationRepository;
         this.requestOrganizationService = requestOrganizationService;
         this.requestOrganizationRepository = requestOrganizationRepository;
+        this.organizationEventService = organizationEventService;
     }
 
     @Transactional
@@ -59,6 +63,7 @@ public class OrganizationService {
         if (token.isAdmin()) {
             log.warn("The organization with id \"{}\" was deleted by admin {}", id, token.getUsername());
             organization.setIsDeleted(true);
+            organizationEventService.record(organization, OrganizationEventType.DELETED);
             return;
         }
         if (!isValidOwner(token.getId(), id)) {
@@ -67,6 +72,7 @@ public class OrganizationService {
         }
         log.info("The organization with id \"{}\" was deleted by owner {}", id, token.getUsername());
         organization.setIsDeleted(true);
+        organizationEventService.record(organization, OrganizationEventType.DELETED);
     }
 
     @Transactional
@@ -113,7 +119,11 @@ public class OrganizationService {
             log.warn("Organization with id \"{}\" is deleted", id);
             throw new DeletedOrganizationException(id);
         }
-        entity.setIsFrozen(isFrozen);
+        if (entity.getIsFrozen() != isFrozen) {
+            entity.setIsFrozen(isFrozen);
+            organizationEventService.record(entity,
+                    isFrozen ? OrganizationEventType.FROZEN : OrganizationEventType.UNFROZEN);
+        }
         if (isFrozen) {
             log.info("Organization with id \"{}\" has been frozen", id);
         } else {
@@ -133,10 +143,13 @@ public class OrganizationService {
     }
 
     private OrganizationEntity modifyEntity(OrganizationEntity entity, long ownerId, EditOrganizationDto dto) {
+        boolean ownerChanged = entity.getOwnerId() != ownerId;
         entity.setName(dto.name());
         entity.setOwnerId(ownerId);
         entity.setLogoUrl(dto.logoUrl());
         entity.setDescription(dto.description());
+        organizationEventService.record(entity,
+                ownerChanged ? OrganizationEventType.OWNER_CHANGED : OrganizationEventType.EDITED);
         return entity;
     }
 
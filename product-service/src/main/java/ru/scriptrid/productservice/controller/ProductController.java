@@ -56,8 +56,9 @@ public class ProductController {
 
     @PreAuthorize("hasAuthority('ROLE_SERVICE')")
     @PutMapping("/{id}/return")
-    public void returnProduct(@PathVariable long id, @RequestBody @Valid @Min(1) int quantity) {
-        productService.returnProduct(id, quantity);
+    public void returnProduct(@PathVariable long id, @RequestBody @Valid @Min(1) int quantity,
+                              @RequestHeader(name = "Idempotency-Key", required = false) String returnId) {
+        productService.returnProduct(id, quantity, returnId);
     }
 
 }
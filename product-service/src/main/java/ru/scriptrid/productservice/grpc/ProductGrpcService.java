@@ -0,0 +1,90 @@
+package ru.scriptrid.productservice.grpc;
+
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.springframework.stereotype.Service;
+import ru.scriptrid.common.grpc.GrpcCalls;
+import ru.scriptrid.common.grpc.ProtoMapper;
+import ru.scriptrid.common.grpc.api.*;
+import ru.scriptrid.productservice.exceptions.InsufficientQuantityException;
+import ru.scriptrid.productservice.exceptions.ProductNotFoundByIdException;
+import ru.scriptrid.productservice.service.ProductService;
+
+/**
+ * The lookups and reservations of {@code ProductController} that order-service makes, over gRPC.
+ */
+@Service
+public class ProductGrpcService extends ProductInternalGrpc.ProductInternalImplBase {
+
+    private final ProductService productService;
+
+    public ProductGrpcService(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public void getProduct(ProductId request, StreamObserver<Product> responses) {
+        GrpcCalls.unary(responses, () -> ProtoMapper.toProto(productService.getProductDto(request.getId())),
+                ProductGrpcService::toStatus);
+    }
+
+    @Override
+    public StreamObserver<ProductId> getProducts(StreamObserver<ProductResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> ProductResult.newBuilder()
+                        .setId(request.getId())
+                        .setProduct(ProtoMapper.toProto(productService.getProductDto(request.getId())))
+                        .build(),
+                (request, failure) -> ProductResult.newBuilder().setId(request.getId()).setFailure(failure).build(),
+                ProductGrpcService::toStatus);
+    }
+
+    @Override
+    public void reserveProduct(Reservation request, StreamObserver<Empty> responses) {
+        GrpcCalls.unary(responses, () -> {
+            productService.reserveProduct(request.getProductId(), request.getQuantity());
+            return Empty.getDefaultInstance();
+        }, ProductGrpcService::toStatus);
+    }
+
+    @Override
+    public StreamObserver<Reservation> reserveProducts(StreamObserver<ReservationResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> {
+                    productService.reserveProduct(request.getProductId(), request.getQuantity());
+                    return ReservationResult.newBuilder().setReservation(request).build();
+                },
+                (request, failure) -> ReservationResult.newBuilder().setReservation(request).setFailure(failure).build(),
+                ProductGrpcService::toStatus);
+    }
+
+    @Override
+    public void returnProduct(Reservation request, StreamObserver<Empty> responses) {
+        GrpcCalls.unary(responses, () -> {
+            productService.returnProduct(request.getProductId(), request.getQuantity(), null);
+            return Empty.getDefaultInstance();
+        }, ProductGrpcService::toStatus);
+    }
+
+    @Override
+    public StreamObserver<Reservation> returnProducts(StreamObserver<ReservationResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> {
+                    productService.returnProduct(request.getProductId(), request.getQuantity(), null);
+                    return ReservationResult.newBuilder().setReservation(request).build();
+                },
+                (request, failure) -> ReservationResult.newBuilder().setReservation(request).setFailure(failure).build(),
+                ProductGrpcService::toStatus);
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        if (e instanceof ProductNotFoundByIdException) {
+            return Status.NOT_FOUND;
+        }
+        if (e instanceof InsufficientQuantityException) {
+            return Status.FAILED_PRECONDITION;
+        }
+        return GrpcCalls.commonStatus(e);
+    }
+}
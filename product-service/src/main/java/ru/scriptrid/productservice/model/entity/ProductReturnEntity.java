@@ -0,0 +1,29 @@
+package ru.scriptrid.productservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A product return made with an idempotency key: its id is the key, so a call repeated with it is not applied again.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "product_returns")
+public class ProductReturnEntity {
+    @Id
+    @Column(name = "return_id", nullable = false, length = 64)
+    private String id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "returned_at", nullable = false)
+    private ZonedDateTime returnedAt;
+}
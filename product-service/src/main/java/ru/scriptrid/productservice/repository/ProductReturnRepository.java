@@ -0,0 +1,19 @@
+package ru.scriptrid.productservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.productservice.model.entity.ProductReturnEntity;
+
+@Repository
+public interface ProductReturnRepository extends JpaRepository<ProductReturnEntity, String> {
+
+    /**
+     * @return 0 when a return with the id was already made; a concurrent one with it is waited for
+     */
+    @Modifying
+    @Query(value = "insert into product_returns (return_id, product_id, quantity, returned_at) " +
+            "values (?1, ?2, ?3, now()) on conflict (return_id) do nothing", nativeQuery = true)
+    int insertIfAbsent(String id, long productId, int quantity);
+}
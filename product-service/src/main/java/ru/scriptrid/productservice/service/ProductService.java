@@ -1,5 +1,6 @@
 package ru.scriptrid.productservice.service;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -18,6 +19,7 @@ import ru.scriptrid.productservice.model.entity.DiscountEntity;
 import ru.scriptrid.productservice.model.entity.ProductEntity;
 import ru.scriptrid.productservice.model.entity.RequestNewProductEntity;
 import ru.scriptrid.productservice.repository.ProductRepository;
+import ru.scriptrid.productservice.repository.ProductReturnRepository;
 import ru.scriptrid.productservice.repository.RequestNewProductRepository;
 
 import java.math.BigDecimal;
@@ -32,12 +34,15 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final WebOrganizationService webOrganizationService;
     private final RequestNewProductRepository requestNewProductRepository;
+    private final ProductReturnRepository productReturnRepository;
 
     public ProductService(ProductRepository productRepository, WebOrganizationService webOrganizationService,
-                          RequestNewProductRepository requestNewProductRepository) {
+                          RequestNewProductRepository requestNewProductRepository,
+                          ProductReturnRepository productReturnRepository) {
         this.productRepository = productRepository;
         this.webOrganizationService = webOrganizationService;
         this.requestNewProductRepository = requestNewProductRepository;
+        this.productReturnRepository = productReturnRepository;
     }
 
 
@@ -152,8 +157,16 @@ public class ProductService {
         productEntity.setQuantityInStock(productEntity.getQuantityInStock() - quantity);
     }
 
+    /**
+     * A return with a return id is applied once: repeating it with the same id, like a retry after a lost answer,
+     * changes nothing.
+     */
     @Transactional(isolation = Isolation.REPEATABLE_READ)
-    public void returnProduct(long id, int quantity) {
+    public void returnProduct(long id, int quantity, @Nullable String returnId) {
+        if (returnId != null && productReturnRepository.insertIfAbsent(returnId, id, quantity) == 0) {
+            log.info("Return \"{}\" of product with id \"{}\" was already made", returnId, id);
+            return;
+        }
         ProductEntity productEntity = getProductEntity(id);
         productEntity.setQuantityInStock(productEntity.getQuantityInStock() + quantity);
     }
@@ -1,5 +1,6 @@
 package ru.scriptrid.productservice.service;
 
+import jakarta.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -9,23 +10,50 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.OrganizationReplica;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
 import ru.scriptrid.common.dto.OrganizationDto;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 
+import java.util.Optional;
+
 @Service
 @Slf4j
 public class WebOrganizationService {
 
     private final WebClient webClient;
+    @Nullable
+    private final OrganizationReplica organizationReplica;
 
-    public WebOrganizationService(@Value("${services.organization.uri}") String organizationServiceUri, WebClient.Builder builder) {
-        this.webClient = builder.baseUrl(organizationServiceUri).build();
+    public WebOrganizationService(@Value("${services.organization.uri}") String organizationServiceUri, ServiceWebClientFactory clientFactory,
+                                  Optional<OrganizationReplica> organizationReplica) {
+        this.webClient = clientFactory.create("organization-service", organizationServiceUri);
+        this.organizationReplica = organizationReplica.orElse(null);
     }
 
+    /**
+     * Answered from the {@link OrganizationReplica} when it knows the organization, otherwise by organization-service.
+     */
     public OrganizationDto getDto(long id) {
+        if (organizationReplica == null) {
+            return fetch(id);
+        }
+        OrganizationDto replicated = organizationReplica.get(id);
+        if (replicated != null) {
+            return replicated;
+        }
+        long version = organizationReplica.version();
+        OrganizationDto organization = fetch(id);
+        if (organization != null) {
+            organizationReplica.remember(organization, version);
+        }
+        return organization;
+    }
+
+    private OrganizationDto fetch(long id) {
         JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         return webClient.get()
-                .uri("/api/organization/" + id)
+                .uri("/api/organization/{id}", id)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
                 .retrieve()
                 .bodyToMono(OrganizationDto.class)
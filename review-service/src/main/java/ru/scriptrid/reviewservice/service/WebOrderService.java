@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
 import ru.scriptrid.common.dto.OrderDto;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
 
@@ -19,15 +20,15 @@ public class WebOrderService {
 
     private final WebClient webClient;
 
-    public WebOrderService(@Value("${services.order.uri}") String organizationServiceUri, WebClient.Builder builder) {
-        this.webClient = builder.baseUrl(organizationServiceUri).build();
+    public WebOrderService(@Value("${services.order.uri}") String organizationServiceUri, ServiceWebClientFactory clientFactory) {
+        this.webClient = clientFactory.create("order-service", organizationServiceUri);
     }
 
     @Nullable
     public OrderDto getDto(long id) {
         JwtAuthenticationToken token = (JwtAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
         return webClient.get()
-                .uri("/api/order/" + id)
+                .uri("/api/order/{id}", id)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getJwt())
                 .retrieve()
                 .bodyToMono(OrderDto.class)
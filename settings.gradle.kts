@@ -1,9 +1,12 @@
 rootProject.name = "effective-mobile-shop"
 include("product-service")
 include("order-service")
+include("order-service-reactive")
+include("load-test")
 include("review-service")
 include("organization-service")
 include("user-service")
 include("notification-service")
 include("common")
+include("benchmarks")
 
@@ -7,7 +7,10 @@ plugins {
 group = "ru.scriptrid"
 version = "0.0.1-SNAPSHOT"
 
-java.sourceCompatibility = JavaVersion.VERSION_17
+java.sourceCompatibility = JavaVersion.VERSION_21
+
+extra["lombok.version"] = "1.18.30"
+extra["postgresql.version"] = "42.6.0"
 
 configurations {
     compileOnly {
@@ -39,8 +42,26 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
+    testImplementation("org.springframework.boot:spring-boot-starter-webflux")
+    testImplementation("io.zonky.test:embedded-postgres:2.0.7")
+    testImplementation(enforcedPlatform("io.zonky.test.postgres:embedded-postgres-binaries-bom:15.5.0"))
+}
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("load")
+    }
 }
 
-tasks.withType<Test> {
-    useJUnitPlatform()
+tasks.register<Test>("loadTest") {
+    description = "Runs benchmarks of concurrent balance transfers and of the internal APIs."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
 }
@@ -43,13 +43,10 @@ public class AuthController {
 
 
     @PostMapping("/login")
-    public ResponseEntity<UserDto> login(HttpServletRequest req, @RequestBody LoginUserDto dto) {
-        if (!doLogin(req, dto.username(), dto.password())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        UserDto user = userService.getUserDtoByUsername(dto.username());
-        String token = jwtService.generateUserToken(user);
-        return ResponseEntity.ok().header("Authorization", token).body(user);
+    public ResponseEntity<UserDto> login(@RequestBody LoginUserDto dto) {
+        return userService.logIn(dto.username(), dto.password())
+                .map(user -> ResponseEntity.ok().header("Authorization", jwtService.generateUserToken(user)).body(user))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
     }
 
     @PostMapping("/logout")
@@ -63,19 +60,4 @@ public class AuthController {
         }
 
     }
-
-    private boolean doLogin(HttpServletRequest req, String username, String password) {
-        if (!userService.isAbleToLogIn(username)) {
-            log.warn("User \"{}\" was not able to login", username);
-            return false;
-        }
-        try {
-            req.login(username, password);
-        } catch (ServletException e) {
-            log.warn("Error while login", e);
-            return false;
-        }
-        return true;
-
-    }
 }
@@ -1,8 +1,11 @@
 package ru.scriptrid.userservice.controller;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.scriptrid.common.exception.InvalidPageCursorException;
 import ru.scriptrid.userservice.exceptions.*;
 
 
@@ -32,4 +35,19 @@ public class BusinessExceptionHandler {
     public ResponseEntity<Void> onInsufficientFunds() {
         return ResponseEntity.badRequest().build();
     }
+
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<Void> onTooManyIds() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(LoginRejectedException.class)
+    public ResponseEntity<Void> onLoginRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler(InvalidPageCursorException.class)
+    public ResponseEntity<Void> onInvalidPageCursor() {
+        return ResponseEntity.badRequest().build();
+    }
 }
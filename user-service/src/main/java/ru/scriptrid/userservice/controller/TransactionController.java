@@ -1,17 +1,27 @@
 package ru.scriptrid.userservice.controller;
 
+import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.scriptrid.common.dto.TransactionCreateDto;
 import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.userservice.model.dto.TransactionHistoryQuery;
+import ru.scriptrid.userservice.model.dto.TransactionPageDto;
 import ru.scriptrid.userservice.service.TransactionService;
 
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+
 @RestController
 @RequestMapping("/api/transaction/")
 public class TransactionController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final TransactionService transactionService;
 
     public TransactionController(TransactionService transactionService) {
@@ -29,4 +39,32 @@ public class TransactionController {
     public TransactionDto returnMoney(@RequestBody long transactionId) {
         return transactionService.returnMoney(transactionId);
     }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or #id == authentication.id")
+    @GetMapping("/user/{id}/incoming")
+    public TransactionPageDto getIncoming(@PathVariable long id, @Valid TransactionHistoryQuery query) {
+        return transactionService.getIncoming(id, query);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or #id == authentication.id")
+    @GetMapping("/user/{id}/outgoing")
+    public TransactionPageDto getOutgoing(@PathVariable long id, @Valid TransactionHistoryQuery query) {
+        return transactionService.getOutgoing(id, query);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or #id == authentication.id")
+    @GetMapping("/user/{id}/returns")
+    public TransactionPageDto getReturns(@PathVariable long id, @Valid TransactionHistoryQuery query) {
+        return transactionService.getReturns(id, query);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or #id == authentication.id")
+    @GetMapping("/user/{id}/statement")
+    public ResponseEntity<StreamingResponseBody> getStatement(@PathVariable long id, @RequestParam YearMonth month) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + id + "-" + month + ".csv").build().toString())
+                .body(transactionService.getStatement(id, month));
+    }
 }
@@ -8,10 +8,12 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.scriptrid.common.dto.UserDto;
 import ru.scriptrid.common.security.JwtAuthenticationToken;
+import ru.scriptrid.userservice.model.dto.BalanceDto;
 import ru.scriptrid.userservice.service.UserService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Validated
 @RestController
@@ -31,6 +33,12 @@ public class UserController {
         return userService.setBalance(id, balance);
     }
 
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or #id == authentication.id")
+    @GetMapping("/{id}/balance")
+    public BalanceDto getBalance(@PathVariable long id) {
+        return userService.getBalance(id);
+    }
+
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @PutMapping("/{id}/freeze")
     public void freezeUser(@PathVariable long id, @RequestBody boolean isFrozen) {
@@ -48,6 +56,15 @@ public class UserController {
         return userService.getUserDtoById(id);
     }
 
+    /**
+     * The users with the given ids, in no particular order; ids of no user are left out.
+     */
+    @PreAuthorize("hasAuthority('ROLE_SERVICE') or hasAuthority('ROLE_ADMIN')")
+    @PostMapping("/batch")
+    public List<UserDto> getUsers(@RequestBody Set<Long> ids) {
+        return userService.getUserDtosByIds(ids);
+    }
+
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     @GetMapping
     public List<UserDto> getUsers() {
@@ -0,0 +1,29 @@
+package ru.scriptrid.userservice.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.scriptrid.userservice.service.UserEventService;
+
+@RestController
+@RequestMapping("/api/user/events")
+public class UserEventController {
+
+    private final UserEventService userEventService;
+
+    public UserEventController(UserEventService userEventService) {
+        this.userEventService = userEventService;
+    }
+
+    /**
+     * Server-sent events of the users frozen, unfrozen or deleted from now on.
+     */
+    @PreAuthorize("hasAuthority('ROLE_SERVICE')")
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents() {
+        return userEventService.subscribe();
+    }
+}
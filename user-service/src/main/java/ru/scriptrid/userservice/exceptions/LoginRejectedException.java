@@ -0,0 +1,7 @@
+package ru.scriptrid.userservice.exceptions;
+
+/**
+ * The password could not be checked because the password workers are saturated.
+ */
+public class LoginRejectedException extends RuntimeException {
+}
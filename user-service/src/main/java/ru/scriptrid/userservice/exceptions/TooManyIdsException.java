@@ -0,0 +1,14 @@
+package ru.scriptrid.userservice.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyIdsException extends RuntimeException {
+    private final int count;
+    private final int maxCount;
+
+    public TooManyIdsException(int count, int maxCount) {
+        this.count = count;
+        this.maxCount = maxCount;
+    }
+}
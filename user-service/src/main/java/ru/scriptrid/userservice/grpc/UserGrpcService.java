@@ -0,0 +1,82 @@
+package ru.scriptrid.userservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.springframework.stereotype.Service;
+import ru.scriptrid.common.grpc.GrpcCalls;
+import ru.scriptrid.common.grpc.ProtoMapper;
+import ru.scriptrid.common.grpc.api.*;
+import ru.scriptrid.userservice.exceptions.InsufficientFundsException;
+import ru.scriptrid.userservice.exceptions.TransactionNotFoundException;
+import ru.scriptrid.userservice.exceptions.UserNotFoundByIdException;
+import ru.scriptrid.userservice.service.TransactionService;
+import ru.scriptrid.userservice.service.UserService;
+
+/**
+ * The user lookups and transfers order-service makes, over gRPC. Transfers go through
+ * {@link TransactionService#transferMoney}, so they join the group commit when it is enabled.
+ */
+@Service
+public class UserGrpcService extends UserInternalGrpc.UserInternalImplBase {
+
+    private final UserService userService;
+
+    private final TransactionService transactionService;
+
+    public UserGrpcService(UserService userService, TransactionService transactionService) {
+        this.userService = userService;
+        this.transactionService = transactionService;
+    }
+
+    @Override
+    public void getUser(UserId request, StreamObserver<User> responses) {
+        GrpcCalls.unary(responses, () -> ProtoMapper.toProto(userService.getUserDtoById(request.getId())),
+                UserGrpcService::toStatus);
+    }
+
+    @Override
+    public StreamObserver<UserId> getUsers(StreamObserver<UserResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> UserResult.newBuilder()
+                        .setId(request.getId())
+                        .setUser(ProtoMapper.toProto(userService.getUserDtoById(request.getId())))
+                        .build(),
+                (request, failure) -> UserResult.newBuilder().setId(request.getId()).setFailure(failure).build(),
+                UserGrpcService::toStatus);
+    }
+
+    @Override
+    public void transfer(TransferRequest request, StreamObserver<Transaction> responses) {
+        GrpcCalls.unary(responses,
+                () -> ProtoMapper.toProto(transactionService.transferMoney(ProtoMapper.fromProto(request))),
+                UserGrpcService::toStatus);
+    }
+
+    @Override
+    public StreamObserver<TransferRequest> transfers(StreamObserver<TransferResult> responses) {
+        return GrpcCalls.eachAnswered(responses,
+                request -> TransferResult.newBuilder()
+                        .setRequest(request)
+                        .setTransaction(ProtoMapper.toProto(transactionService.transferMoney(ProtoMapper.fromProto(request))))
+                        .build(),
+                (request, failure) -> TransferResult.newBuilder().setRequest(request).setFailure(failure).build(),
+                UserGrpcService::toStatus);
+    }
+
+    @Override
+    public void returnTransfer(TransactionId request, StreamObserver<Transaction> responses) {
+        GrpcCalls.unary(responses,
+                () -> ProtoMapper.toProto(transactionService.returnMoney(request.getId())),
+                UserGrpcService::toStatus);
+    }
+
+    private static Status toStatus(RuntimeException e) {
+        if (e instanceof UserNotFoundByIdException || e instanceof TransactionNotFoundException) {
+            return Status.NOT_FOUND;
+        }
+        if (e instanceof InsufficientFundsException) {
+            return Status.FAILED_PRECONDITION;
+        }
+        return GrpcCalls.commonStatus(e);
+    }
+}
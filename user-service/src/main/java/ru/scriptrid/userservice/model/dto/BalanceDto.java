@@ -0,0 +1,9 @@
+package ru.scriptrid.userservice.model.dto;
+
+import java.math.BigDecimal;
+
+public record BalanceDto(
+        long userId,
+        BigDecimal balance
+) {
+}
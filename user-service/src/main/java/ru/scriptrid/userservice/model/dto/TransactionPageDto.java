@@ -0,0 +1,18 @@
+package ru.scriptrid.userservice.model.dto;
+
+import jakarta.annotation.Nullable;
+import ru.scriptrid.common.dto.TransactionDto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+public record TransactionPageDto(
+        List<TransactionDto> transactions,
+
+        @Nullable
+        ZonedDateTime nextBeforeTime,
+
+        @Nullable
+        Long nextBeforeId
+) {
+}
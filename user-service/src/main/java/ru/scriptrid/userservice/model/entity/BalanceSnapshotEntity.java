@@ -0,0 +1,27 @@
+package ru.scriptrid.userservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * Balance of an account summed over all its ledger entries created before {@link #takenAt}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshotEntity {
+    @Id
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "balance", nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "taken_at", nullable = false)
+    private ZonedDateTime takenAt;
+}
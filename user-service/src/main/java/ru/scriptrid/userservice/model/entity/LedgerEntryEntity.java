@@ -0,0 +1,39 @@
+package ru.scriptrid.userservice.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+/**
+ * One line of the append-only ledger: a change of the balance of one account. Entries are never updated or
+ * deleted, a return appends the negated entries of the original transaction.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "ledger_entries")
+public class LedgerEntryEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq")
+    @Column(name = "entry_id", nullable = false)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /**
+     * Null for the opening entries written when the balances were moved to the ledger.
+     */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+}
@@ -10,7 +10,10 @@ import java.time.ZonedDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_source_time", columnList = "source_id, time_of_transaction, id"),
+        @Index(name = "idx_transactions_destination_time", columnList = "destination_id, time_of_transaction, id")
+})
 public class TransactionEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_entity_seq")
@@ -33,6 +36,12 @@ public class TransactionEntity {
     @Column(name = "is_return", nullable = false)
     private Boolean isReturn = false;
 
+    /**
+     * The transaction a return gives back; unique, so a transaction is returned at most once.
+     */
+    @Column(name = "returned_transaction_id", unique = true)
+    private Long returnedTransactionId;
+
     @Column(name = "time_of_transaction", nullable = false)
     private ZonedDateTime timeOfTransaction;
 
@@ -3,12 +3,12 @@ package ru.scriptrid.userservice.model.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
-
-import java.math.BigDecimal;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class UserEntity {
     @Id
@@ -23,9 +23,6 @@ public class UserEntity {
     @Column(name = "password", nullable = false)
     private String password;
 
-    @Column(name = "balance", nullable = false)
-    private BigDecimal balance = BigDecimal.ZERO;
-
     @Column(name = "is_admin", nullable = false)
     private Boolean isAdmin = false;
 
@@ -0,0 +1,37 @@
+package ru.scriptrid.userservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.userservice.model.entity.BalanceSnapshotEntity;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshotEntity, Long> {
+
+    /**
+     * When the oldest transaction still open on the database, other than the calling one, started; the calling one
+     * if there is none. Needs to see the other sessions of the role, which it does unless they run as another one.
+     */
+    @Query(value = "select least(min(xact_start), now()) from pg_stat_activity " +
+            "where datname = current_database() and backend_type = 'client backend' and pid <> pg_backend_pid()",
+            nativeQuery = true)
+    Instant oldestOpenTransactionStart();
+
+    /**
+     * Moves the snapshot of every account with new entries forward to the cutoff, adding up only the entries
+     * created between the previous snapshot and the cutoff.
+     */
+    @Modifying
+    @Query(value = "insert into balance_snapshots (account_id, balance, taken_at) " +
+            "select e.account_id, coalesce(s.balance, 0) + sum(e.amount), ?1 from ledger_entries e " +
+            "left join balance_snapshots s on s.account_id = e.account_id " +
+            "where e.created_at >= coalesce(s.taken_at, '-infinity') and e.created_at < ?1 " +
+            "group by e.account_id, s.balance " +
+            "on conflict (account_id) do update set balance = excluded.balance, taken_at = excluded.taken_at",
+            nativeQuery = true)
+    int advanceTo(ZonedDateTime cutoff);
+}
@@ -0,0 +1,41 @@
+package ru.scriptrid.userservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.scriptrid.userservice.model.entity.LedgerEntryEntity;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, Long> {
+    List<LedgerEntryEntity> findByTransactionId(long transactionId);
+
+    /**
+     * The snapshot of the account plus the entries created since it was taken, read in one statement so a
+     * concurrent snapshot update cannot be seen half-way.
+     */
+    @Query(value = "select coalesce((select s.balance from balance_snapshots s where s.account_id = ?1), 0) + " +
+            "coalesce((select sum(e.amount) from ledger_entries e where e.account_id = ?1 and e.created_at >= " +
+            "coalesce((select s.taken_at from balance_snapshots s where s.account_id = ?1), '-infinity')), 0)",
+            nativeQuery = true)
+    BigDecimal balanceOf(long accountId);
+
+    /**
+     * Same as {@link #balanceOf(long)} for many accounts at once, as pairs of account id and balance.
+     */
+    @Query(value = "select s.account_id, s.balance + coalesce((select sum(e.amount) from ledger_entries e " +
+            "where e.account_id = s.account_id and e.created_at >= s.taken_at), 0) " +
+            "from balance_snapshots s where s.account_id in ?1 " +
+            "union all " +
+            "select e.account_id, sum(e.amount) from ledger_entries e where e.account_id in ?1 " +
+            "and not exists (select 1 from balance_snapshots s where s.account_id = e.account_id) " +
+            "group by e.account_id",
+            nativeQuery = true)
+    List<Object[]> balancesOf(Collection<Long> accountIds);
+
+    @Query("select coalesce(sum(e.amount), 0) from LedgerEntryEntity e")
+    BigDecimal sumOfAllEntries();
+}
@@ -1,9 +1,57 @@
 package ru.scriptrid.userservice.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.scriptrid.common.dto.TransactionDto;
 import ru.scriptrid.userservice.model.entity.TransactionEntity;
 
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface TransactionRepository extends JpaRepository<TransactionEntity, Long> {
-}
\ No newline at end of file
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from TransactionEntity t where t.id = ?1")
+    Optional<TransactionEntity> lockById(long id);
+
+    Optional<TransactionEntity> findByReturnedTransactionId(long returnedTransactionId);
+
+    @Query("select t from TransactionEntity t where t.destinationId = ?1 and t.timeOfTransaction >= ?2 " +
+            "and t.timeOfTransaction <= ?3 and (t.timeOfTransaction < ?3 or t.id < ?4) " +
+            "order by t.timeOfTransaction desc, t.id desc")
+    List<TransactionEntity> findIncomingPage(long userId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                             long beforeId, Pageable pageable);
+
+    @Query("select t from TransactionEntity t where t.sourceId = ?1 and t.timeOfTransaction >= ?2 " +
+            "and t.timeOfTransaction <= ?3 and (t.timeOfTransaction < ?3 or t.id < ?4) " +
+            "order by t.timeOfTransaction desc, t.id desc")
+    List<TransactionEntity> findOutgoingPage(long userId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                             long beforeId, Pageable pageable);
+
+    @Query("select t from TransactionEntity t where (t.sourceId = ?1 or t.destinationId = ?1) and t.isReturn = true " +
+            "and t.timeOfTransaction >= ?2 and t.timeOfTransaction <= ?3 and (t.timeOfTransaction < ?3 or t.id < ?4) " +
+            "order by t.timeOfTransaction desc, t.id desc")
+    List<TransactionEntity> findReturnPage(long userId, ZonedDateTime from, ZonedDateTime beforeTime,
+                                           long beforeId, Pageable pageable);
+
+    /**
+     * Read through a database cursor; the rows are not entities, so nothing piles up in the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.scriptrid.common.dto.TransactionDto(t.id, t.sourceId, t.destinationId, t.sourceDelta, " +
+            "t.destinationDelta, t.isReturn, t.timeOfTransaction) from TransactionEntity t " +
+            "where (t.sourceId = ?1 or t.destinationId = ?1) and t.timeOfTransaction >= ?2 " +
+            "and t.timeOfTransaction < ?3 order by t.timeOfTransaction, t.id")
+    Stream<TransactionDto> streamStatement(long userId, ZonedDateTime from, ZonedDateTime to);
+}
@@ -1,13 +1,34 @@
 package ru.scriptrid.userservice.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.scriptrid.userservice.model.entity.UserEntity;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByUsername(String username);
     boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+    @Query(value = "select id from users where id = ?1 for update", nativeQuery = true)
+    Optional<Long> lockById(long id);
+
+    /**
+     * Rows are locked in id order, so batches locking overlapping users cannot deadlock.
+     */
+    @Query(value = "select id from users where id in ?1 order by id for update", nativeQuery = true)
+    List<Long> lockAllById(Collection<Long> ids);
+
+    @Query("select u.id from UserEntity u where u.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * The ids are bound as one array, so any number of them makes the same statement and plan.
+     */
+    @Query(value = "select * from users where id = any(?1)", nativeQuery = true)
+    List<UserEntity> findAllByIdIn(Long[] ids);
+}
@@ -0,0 +1,117 @@
+package ru.scriptrid.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects concurrent requests into batches, so they can share one database commit. The first request of a batch
+ * waits at most the batch window for others to join; batches are handled one at a time on a single thread, and the
+ * next batch fills up while the previous one commits. The handler completes the result of every request of the
+ * batch, whatever it leaves incomplete fails with the exception the handler threw. An {@link Error} thrown by the
+ * handler closes the queue, so later submits fail at once instead of waiting for batches nobody handles.
+ */
+@Slf4j
+public class GroupCommitQueue<T, R> implements AutoCloseable {
+    private final BlockingQueue<Request<T, R>> queue = new LinkedBlockingQueue<>();
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Consumer<List<Request<T, R>>> handler;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    public record Request<T, R>(T payload, CompletableFuture<R> result) {
+    }
+
+    public GroupCommitQueue(String name, Duration window, int maxBatchSize, Consumer<List<Request<T, R>>> handler) {
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+        this.dispatcher = Thread.ofPlatform().name(name).daemon().start(this::dispatch);
+    }
+
+    /**
+     * Waits until the batch of the request is handled; exceptions of the handler are rethrown unwrapped.
+     */
+    public R submit(T payload) {
+        if (closed) {
+            throw new IllegalStateException("Group commit queue is closed");
+        }
+        Request<T, R> request = new Request<>(payload, new CompletableFuture<>());
+        queue.add(request);
+        // Closed meanwhile: the dispatcher may have exited without seeing the request; one it took is completed by it
+        if (closed && queue.remove(request)) {
+            request.result().completeExceptionally(new IllegalStateException("Group commit queue is closed"));
+        }
+        try {
+            return request.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+
+    private void dispatch() {
+        List<Request<T, R>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + window.toNanos();
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request<T, R> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    batch.add(next);
+                }
+                handle(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            IllegalStateException shutdown = new IllegalStateException("Group commit queue is closed");
+            batch.forEach(request -> request.result().completeExceptionally(shutdown));
+            queue.forEach(request -> request.result().completeExceptionally(shutdown));
+        }
+    }
+
+    private void handle(List<Request<T, R>> batch) {
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Batch of {} requests failed", batch.size(), e);
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        } catch (Throwable e) {
+            log.error("Batch of {} requests failed, closing the group commit queue", batch.size(), e);
+            closed = true;
+            batch.forEach(request -> request.result().completeExceptionally(e));
+        }
+        batch.stream()
+                .filter(request -> !request.result().isDone())
+                .forEach(request -> request.result().completeExceptionally(
+                        new IllegalStateException("Request was left incomplete by its batch")));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.scriptrid.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Prepares the ledger before the service takes requests: creates the partitions and, on a database that still
+ * keeps balances in {@code users.balance}, books every balance as an opening entry against the platform account.
+ * The column is left in place, frozen, so the previous release can still start against the database; it is dropped
+ * only once {@code users.ledger.migration.drop-balance-column} is set.
+ */
+@Component
+@Slf4j
+public class LedgerMigration implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerPartitionService ledgerPartitionService;
+    private final boolean dropBalanceColumn;
+
+    public LedgerMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           LedgerPartitionService ledgerPartitionService,
+                           @Value("${users.ledger.migration.drop-balance-column}") boolean dropBalanceColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerPartitionService = ledgerPartitionService;
+        this.dropBalanceColumn = dropBalanceColumn;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ledgerPartitionService.createPartitions();
+        if (!columnExists("users", "balance")) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("lock table users in exclusive mode");
+            // Another instance may have moved the balances or dropped the column while this one waited for the lock
+            if (!columnExists("users", "balance")) {
+                return;
+            }
+            if (!openingEntriesBooked()) {
+                moveBalancesToLedger();
+            }
+            if (dropBalanceColumn) {
+                jdbcTemplate.execute("alter table users drop column balance");
+                log.info("The balance column of users was dropped");
+            }
+        });
+    }
+
+    private void moveBalancesToLedger() {
+        // The sequence only hands out positive ids, so the opening entries take the negated user id and 0
+        int accounts = jdbcTemplate.update("insert into ledger_entries (entry_id, account_id, amount, created_at) " +
+                "select -id, id, balance, now() from users where balance <> 0");
+        jdbcTemplate.update("insert into ledger_entries (entry_id, account_id, amount, created_at) " +
+                "select 0, ?, -coalesce(sum(balance), 0), now() from users",
+                LedgerService.PLATFORM_ACCOUNT_ID);
+        // Users are no longer inserted with a balance
+        jdbcTemplate.execute("alter table users alter column balance set default 0");
+        log.info("Balances of {} users were moved to the ledger", accounts);
+    }
+
+    /**
+     * The opening entry of the platform account is booked even when no user has a balance.
+     */
+    private boolean openingEntriesBooked() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from ledger_entries where entry_id = 0 and account_id = ?)",
+                Boolean.class, LedgerService.PLATFORM_ACCOUNT_ID));
+    }
+
+    private boolean columnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from information_schema.columns " +
+                        "where table_schema = current_schema() and table_name = ? and column_name = ?)",
+                Boolean.class, table, column));
+    }
+}
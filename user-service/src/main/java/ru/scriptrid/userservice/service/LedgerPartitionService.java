@@ -0,0 +1,95 @@
+package ru.scriptrid.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Creates the monthly range partitions of {@code ledger_entries} ahead of time. Old partitions are kept: they are
+ * covered by the balance snapshots and only read by the reconciliation.
+ * <p>
+ * Entries of a month that has no partition yet, when a run was missed, land in {@code ledger_entries_default};
+ * creating the partition then moves them into it.
+ */
+@Service
+@Slf4j
+public class LedgerPartitionService {
+    private static final String PARENT_TABLE = "ledger_entries";
+    private static final String DEFAULT_PARTITION = "ledger_entries_default";
+    private static final String PARTITION_PREFIX = "ledger_entries_p";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public LedgerPartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  @Value("${users.ledger.partitions.months-ahead}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(cron = "${users.ledger.partitions.cron}")
+    public void createPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartition(current.plusMonths(i));
+            } catch (DataAccessException e) {
+                log.error("Unable to create partition of \"{}\" for {}", PARENT_TABLE, current.plusMonths(i), e);
+            }
+        }
+    }
+
+    /**
+     * Entries of the month already in the default partition would violate its new constraint, so it is detached
+     * while they are moved. Writes to it are blocked until the transaction ends.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+        if (tableExists(partition)) {
+            log.debug("Partition \"{}\" is in place", partition);
+            return;
+        }
+        String from = month.atDay(1) + " 00:00:00+00";
+        String to = month.plusMonths(1).atDay(1) + " 00:00:00+00";
+        String create = "create table " + partition + " partition of " + PARENT_TABLE +
+                " for values from ('" + from + "') to ('" + to + "')";
+        String range = " where created_at >= ?::timestamptz and created_at < ?::timestamptz";
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tableExists(DEFAULT_PARTITION)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            jdbcTemplate.execute("lock table " + DEFAULT_PARTITION + " in exclusive mode");
+            Integer misplaced = jdbcTemplate.queryForObject(
+                    "select count(*) from " + DEFAULT_PARTITION + range, Integer.class, from, to);
+            if (misplaced == null || misplaced == 0) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+            jdbcTemplate.execute("alter table " + PARENT_TABLE + " detach partition " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            jdbcTemplate.update("insert into " + partition + " select * from " + DEFAULT_PARTITION + range, from, to);
+            jdbcTemplate.update("delete from " + DEFAULT_PARTITION + range, from, to);
+            jdbcTemplate.execute("alter table " + PARENT_TABLE + " attach partition " + DEFAULT_PARTITION + " default");
+            log.warn("Moved {} ledger entries from \"{}\" into the new partition \"{}\"", misplaced,
+                    DEFAULT_PARTITION, partition);
+        });
+        log.info("Partition \"{}\" was created", partition);
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, table));
+    }
+}
@@ -0,0 +1,112 @@
+package ru.scriptrid.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.scriptrid.userservice.repository.LedgerEntryRepository;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifies every balance snapshot against the ledger entries it covers. The accounts are split into id ranges
+ * which are checked in parallel, each with a single aggregate query. A snapshot that does not match is logged and
+ * dropped, so the balance falls back to the entries until the next snapshot is taken. The sum of all entries must
+ * be zero, since every transaction is balanced.
+ */
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final Counter mismatches;
+    private final long chunkSize;
+    private final int parallelism;
+
+    public LedgerReconciliationService(JdbcTemplate jdbcTemplate,
+                                       LedgerEntryRepository ledgerEntryRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${users.ledger.reconciliation.chunk-size}") long chunkSize,
+                                       @Value("${users.ledger.reconciliation.parallelism}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.mismatches = Counter.builder("users.ledger.snapshot.mismatches")
+                .description("Balance snapshots that did not match the ledger entries they cover")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the number of snapshots that did not match and were dropped
+     */
+    @Scheduled(cron = "${users.ledger.reconciliation.cron}")
+    public int reconcile() {
+        BigDecimal total = ledgerEntryRepository.sumOfAllEntries();
+        if (total.signum() != 0) {
+            log.error("Ledger entries do not sum up to zero but to {}", total);
+        }
+
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "select min(account_id) as low, max(account_id) as high from balance_snapshots");
+        if (range.get("low") == null) {
+            return 0;
+        }
+        long low = ((Number) range.get("low")).longValue();
+        long high = ((Number) range.get("high")).longValue();
+
+        int dropped = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = low; from <= high; from += chunkSize) {
+                long chunkFrom = from;
+                chunks.add(executor.submit(() -> reconcile(chunkFrom, chunkFrom + chunkSize)));
+            }
+            for (Future<Integer> chunk : chunks) {
+                dropped += chunk.get();
+            }
+        } catch (ExecutionException e) {
+            log.error("Ledger reconciliation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Ledger reconciliation of accounts {}..{} finished, {} snapshots dropped", low, high, dropped);
+        return dropped;
+    }
+
+    private int reconcile(long fromAccountId, long toAccountId) {
+        List<Mismatch> found = jdbcTemplate.query(
+                "select s.account_id, s.taken_at, s.balance, coalesce(sum(e.amount), 0) as entries " +
+                        "from balance_snapshots s " +
+                        "left join ledger_entries e on e.account_id = s.account_id and e.created_at < s.taken_at " +
+                        "where s.account_id >= ? and s.account_id < ? " +
+                        "group by s.account_id, s.taken_at, s.balance " +
+                        "having s.balance <> coalesce(sum(e.amount), 0)",
+                (row, i) -> new Mismatch(row.getLong("account_id"),
+                        row.getObject("taken_at", OffsetDateTime.class),
+                        row.getBigDecimal("balance"), row.getBigDecimal("entries")),
+                fromAccountId, toAccountId);
+        for (Mismatch mismatch : found) {
+            log.error("Balance snapshot of account \"{}\" taken at {} is {} but its entries sum up to {}",
+                    mismatch.accountId(), mismatch.takenAt(), mismatch.balance(), mismatch.entries());
+            mismatches.increment();
+            // Not only the snapshot that was checked: it may have been moved forward since, carrying the error along
+            jdbcTemplate.update("delete from balance_snapshots where account_id = ?", mismatch.accountId());
+        }
+        return found.size();
+    }
+
+    private record Mismatch(long accountId, OffsetDateTime takenAt, BigDecimal balance, BigDecimal entries) {
+    }
+}
@@ -0,0 +1,183 @@
+package ru.scriptrid.userservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.scriptrid.userservice.exceptions.InsufficientFundsException;
+import ru.scriptrid.userservice.exceptions.UserNotFoundByIdException;
+import ru.scriptrid.userservice.model.entity.LedgerEntryEntity;
+import ru.scriptrid.userservice.model.entity.TransactionEntity;
+import ru.scriptrid.userservice.repository.BalanceSnapshotRepository;
+import ru.scriptrid.userservice.repository.LedgerEntryRepository;
+import ru.scriptrid.userservice.repository.TransactionRepository;
+import ru.scriptrid.userservice.repository.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps balances as an append-only ledger. Every transaction appends entries that sum up to zero, the commission
+ * and manual balance adjustments are booked against the platform account, which is not a user. A balance is its
+ * latest snapshot plus the entries created since; snapshots are moved forward in the background.
+ * <p>
+ * Only debits lock anything: the user row is locked while the balance is checked, so concurrent charges of the
+ * same customer cannot overdraw it. Credits are plain inserts, so a popular seller is not a write hotspot.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+    public static final long PLATFORM_ACCOUNT_ID = 0;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final Duration settleTime;
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository,
+                         BalanceSnapshotRepository balanceSnapshotRepository,
+                         TransactionRepository transactionRepository,
+                         UserRepository userRepository,
+                         @Value("${users.ledger.settle-time}") Duration settleTime) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.settleTime = settleTime;
+    }
+
+    @Transactional
+    public void debit(long userId, long transactionId, BigDecimal amount) {
+        userRepository.lockById(userId).orElseThrow(() -> {
+            log.warn("The user with id \"{}\" not found", userId);
+            return new UserNotFoundByIdException(userId);
+        });
+        BigDecimal balance = ledgerEntryRepository.balanceOf(userId);
+        if (balance.compareTo(amount) < 0) {
+            log.warn("Customer by id \"{}\" has not enough money", userId);
+            throw new InsufficientFundsException(balance, amount);
+        }
+        append(userId, transactionId, amount.negate());
+    }
+
+    @Transactional
+    public void credit(long accountId, long transactionId, BigDecimal amount) {
+        if (accountId != PLATFORM_ACCOUNT_ID && !userRepository.existsById(accountId)) {
+            log.warn("The user with id \"{}\" not found", accountId);
+            throw new UserNotFoundByIdException(accountId);
+        }
+        append(accountId, transactionId, amount);
+    }
+
+    /**
+     * Locks the users in id order and returns the balances of those that exist.
+     */
+    @Transactional
+    public Map<Long, BigDecimal> lockBalances(Collection<Long> userIds) {
+        List<Long> locked = userRepository.lockAllById(userIds);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        locked.forEach(id -> balances.put(id, BigDecimal.ZERO));
+        if (!locked.isEmpty()) {
+            for (Object[] row : ledgerEntryRepository.balancesOf(locked)) {
+                balances.put(((Number) row[0]).longValue(), (BigDecimal) row[1]);
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Appends the entries of a transfer whose customer and seller were already checked by the caller, with the
+     * customer locked.
+     */
+    @Transactional
+    public void book(long transactionId, long customerId, long sellerId, BigDecimal total, BigDecimal sellersIncome) {
+        append(customerId, transactionId, total.negate());
+        append(sellerId, transactionId, sellersIncome);
+        append(PLATFORM_ACCOUNT_ID, transactionId, total.subtract(sellersIncome));
+    }
+
+    /**
+     * Appends the negated entries of the original transaction under the return transaction.
+     */
+    @Transactional
+    public void reverse(long originalTransactionId, long returnTransactionId) {
+        ZonedDateTime now = ZonedDateTime.now();
+        for (LedgerEntryEntity original : ledgerEntryRepository.findByTransactionId(originalTransactionId)) {
+            ledgerEntryRepository.save(toEntry(original.getAccountId(), returnTransactionId,
+                    original.getAmount().negate(), now));
+        }
+    }
+
+    /**
+     * Books the difference to the wanted balance as a transaction from the platform account.
+     */
+    @Transactional
+    public void adjustTo(long userId, BigDecimal balance) {
+        userRepository.lockById(userId).orElseThrow(() -> {
+            log.warn("The user with id \"{}\" not found", userId);
+            return new UserNotFoundByIdException(userId);
+        });
+        BigDecimal delta = balance.subtract(ledgerEntryRepository.balanceOf(userId));
+        if (delta.signum() == 0) {
+            return;
+        }
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setSourceId(PLATFORM_ACCOUNT_ID);
+        transaction.setDestinationId(userId);
+        transaction.setSourceDelta(delta.negate());
+        transaction.setDestinationDelta(delta);
+        transaction.setTimeOfTransaction(ZonedDateTime.now());
+        long transactionId = transactionRepository.save(transaction).getId();
+
+        append(PLATFORM_ACCOUNT_ID, transactionId, delta.negate());
+        append(userId, transactionId, delta);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal balanceOf(long accountId) {
+        return ledgerEntryRepository.balanceOf(accountId);
+    }
+
+    /**
+     * Entries are created with the clock of this service before their transaction commits, so snapshots never move
+     * past the start of the oldest transaction still open on the database: every entry the snapshot cannot see yet
+     * belongs to a transaction that started later, and is created later still. The start is read in a statement of
+     * its own, before the snapshot takes the entries it sees. The settle time covers the difference between the
+     * clocks of this service and of the database.
+     */
+    @Scheduled(fixedDelayString = "${users.ledger.snapshot-delay}")
+    @Transactional
+    public void takeSnapshots() {
+        ZonedDateTime cutoff = balanceSnapshotRepository.oldestOpenTransactionStart().atZone(ZoneOffset.UTC)
+                .minus(settleTime);
+        int accounts = balanceSnapshotRepository.advanceTo(cutoff);
+        if (accounts > 0) {
+            log.debug("Balance snapshots of {} accounts were moved forward", accounts);
+        }
+    }
+
+    private void append(long accountId, long transactionId, BigDecimal amount) {
+        if (amount.signum() == 0) {
+            return;
+        }
+        ledgerEntryRepository.save(toEntry(accountId, transactionId, amount, ZonedDateTime.now()));
+    }
+
+    private static LedgerEntryEntity toEntry(long accountId, Long transactionId, BigDecimal amount,
+                                             ZonedDateTime createdAt) {
+        LedgerEntryEntity entry = new LedgerEntryEntity();
+        entry.setAccountId(accountId);
+        entry.setTransactionId(transactionId);
+        entry.setAmount(amount);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+}
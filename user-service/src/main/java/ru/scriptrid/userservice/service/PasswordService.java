@@ -0,0 +1,85 @@
+package ru.scriptrid.userservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import ru.scriptrid.userservice.exceptions.LoginRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks passwords on a small fixed pool with a bounded queue instead of on request threads. BCrypt is
+ * deliberately CPU-heavy, so a burst of logins would otherwise take all CPU and request threads from the other
+ * endpoints; here it takes at most the pool's threads, and logins beyond the queue are rejected right away.
+ * The pool is exposed as {@code executor.*} metrics with the name {@code users.login.password}; rejections are
+ * counted in {@code users.login.password.rejected} rather than logged one by one.
+ */
+@Service
+@Slf4j
+public class PasswordService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Counter rejected;
+
+    public PasswordService(PasswordEncoder passwordEncoder,
+                           MeterRegistry meterRegistry,
+                           @Value("${users.login.password-threads}") int passwordThreads,
+                           @Value("${users.login.queue-capacity}") int queueCapacity,
+                           @Value("${users.login.timeout}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        int threads = passwordThreads > 0
+                ? passwordThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> new Thread(task, "password-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "users.login.password", Tags.empty()).bindTo(meterRegistry);
+        this.rejected = Counter.builder("users.login.password.rejected")
+                .description("Password checks rejected because the password workers were saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws LoginRejectedException if the queue is full or the check did not finish within the timeout
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Password check rejected, {} checks are queued", executor.getQueue().size());
+            throw new LoginRejectedException();
+        }
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejected.increment();
+            log.warn("Password check did not finish within {}", timeout);
+            throw new LoginRejectedException();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginRejectedException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,70 +1,244 @@
 package ru.scriptrid.userservice.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.scriptrid.common.dto.TransactionCreateDto;
 import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.common.paging.HistoryWindow;
 import ru.scriptrid.userservice.exceptions.InsufficientFundsException;
 import ru.scriptrid.userservice.exceptions.TransactionNotFoundException;
+import ru.scriptrid.userservice.exceptions.UserNotFoundByIdException;
+import ru.scriptrid.userservice.model.dto.TransactionHistoryQuery;
+import ru.scriptrid.userservice.model.dto.TransactionPageDto;
 import ru.scriptrid.userservice.model.entity.TransactionEntity;
-import ru.scriptrid.userservice.model.entity.UserEntity;
 import ru.scriptrid.userservice.repository.TransactionRepository;
 
+import java.io.*;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class TransactionService {
 
+    private final LedgerService ledgerService;
     private final UserService userService;
     private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final GroupCommitQueue<TransactionCreateDto, TransactionDto> groupCommit;
 
-    public TransactionService(UserService userService,
-                              TransactionRepository transactionRepository) {
+    public TransactionService(LedgerService ledgerService,
+                              UserService userService,
+                              TransactionRepository transactionRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${users.transfers.group-commit.enabled}") boolean groupCommitEnabled,
+                              @Value("${users.transfers.group-commit.window}") Duration groupCommitWindow,
+                              @Value("${users.transfers.group-commit.max-batch-size}") int groupCommitMaxBatchSize) {
+        this.ledgerService = ledgerService;
         this.userService = userService;
         this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.groupCommit = groupCommitEnabled
+                ? new GroupCommitQueue<>("transfer-group-commit", groupCommitWindow, groupCommitMaxBatchSize,
+                this::transferBatch)
+                : null;
     }
 
-    @Transactional
+    /**
+     * Books the transfer as three ledger entries: the total off the customer, the income to the seller and the
+     * commission to the platform account. Only the customer is locked, so two transfers can never wait on each
+     * other in opposite order.
+     * <p>
+     * With {@code users.transfers.group-commit.enabled} the transfer is not committed on its own but together
+     * with the transfers that arrive within {@code users.transfers.group-commit.window}, see
+     * {@link #transferBatch(List)}.
+     */
     public TransactionDto transferMoney(TransactionCreateDto dto) {
-        UserEntity customer = userService.getUserById(dto.customerId());
-        UserEntity seller = userService.getUserById(dto.sellerId());
+        if (groupCommit != null) {
+            return groupCommit.submit(dto);
+        }
+        return transactionTemplate.execute(status -> {
+            TransactionEntity transaction = transactionRepository.save(toTransactionEntity(dto));
+            ledgerService.debit(dto.customerId(), transaction.getId(), dto.total());
+            ledgerService.credit(dto.sellerId(), transaction.getId(), dto.sellersIncome());
+            ledgerService.credit(LedgerService.PLATFORM_ACCOUNT_ID, transaction.getId(),
+                    dto.total().subtract(dto.sellersIncome()));
+            return toTransactionDto(transaction);
+        });
+    }
 
-        if (customer.getBalance().compareTo(dto.total()) < 0) {
-            log.warn("Customer by id \"{}\" has not enough money", customer.getId());
-            throw new InsufficientFundsException(customer.getBalance(), dto.total());
+    @PreDestroy
+    public void stopGroupCommit() {
+        if (groupCommit != null) {
+            groupCommit.close();
         }
+    }
 
-        customer.setBalance(customer.getBalance().subtract(dto.total()));
-        seller.setBalance(seller.getBalance().add(dto.sellersIncome()));
+    /**
+     * Returns the transaction at most once: the original is locked, and if it was returned already, that return is
+     * answered again instead of booking another. A caller that lost the answer to a timeout can therefore retry.
+     */
+    public TransactionDto returnMoney(long originalTransactionId) {
+        return transactionTemplate.execute(status -> {
+            TransactionEntity originalTransaction = transactionRepository.lockById(originalTransactionId).orElseThrow(
+                    () -> {
+                        log.warn("Transaction with id \"{}\" not found", originalTransactionId);
+                        return new TransactionNotFoundException(originalTransactionId);
+                    }
+            );
+            Optional<TransactionEntity> existingReturn =
+                    transactionRepository.findByReturnedTransactionId(originalTransactionId);
+            if (existingReturn.isPresent()) {
+                log.info("Money was already returned. Original transaction id: {}", originalTransactionId);
+                return toTransactionDto(existingReturn.get());
+            }
 
+            TransactionEntity returnTransaction = new TransactionEntity();
+            returnTransaction.setDestinationId(originalTransaction.getSourceId());
+            returnTransaction.setSourceId(originalTransaction.getDestinationId());
+            returnTransaction.setSourceDelta(originalTransaction.getDestinationDelta().multiply(BigDecimal.valueOf(-1)));
+            returnTransaction.setDestinationDelta(originalTransaction.getSourceDelta().multiply(BigDecimal.valueOf(-1)));
+            returnTransaction.setIsReturn(true);
+            returnTransaction.setReturnedTransactionId(originalTransactionId);
+            returnTransaction.setTimeOfTransaction(ZonedDateTime.now());
+            returnTransaction = transactionRepository.save(returnTransaction);
+            ledgerService.reverse(originalTransactionId, returnTransaction.getId());
 
-        TransactionEntity transaction = transactionRepository.save(toTransactionEntity(dto));
-        return toTransactionDto(transaction);
+            log.info("Money successfully returned. Original transaction id: {}", originalTransactionId);
+            return toTransactionDto(returnTransaction);
+        });
     }
 
-    @Transactional
-    public TransactionDto returnMoney(long originalTransactionId) {
-        TransactionEntity originalTransaction = getEntityById(originalTransactionId);
+    /**
+     * Locks all customers of the batch in id order and checks every transfer in memory against their balances,
+     * in arrival order. Rejected transfers fail on their own; the accepted ones are written with batched inserts
+     * and committed together, and their callers get their results only after the commit.
+     */
+    private void transferBatch(List<GroupCommitQueue.Request<TransactionCreateDto, TransactionDto>> batch) {
+        Map<GroupCommitQueue.Request<TransactionCreateDto, TransactionDto>, TransactionEntity> accepted =
+                transactionTemplate.execute(status -> {
+                    Map<Long, BigDecimal> balances = ledgerService.lockBalances(batch.stream()
+                            .map(request -> request.payload().customerId())
+                            .collect(Collectors.toCollection(TreeSet::new)));
+                    Set<Long> sellers = userService.getExistingIds(batch.stream()
+                            .map(request -> request.payload().sellerId())
+                            .collect(Collectors.toSet()));
 
-        UserEntity customer = userService.getUserById(originalTransaction.getSourceId());
-        UserEntity seller = userService.getUserById(originalTransaction.getDestinationId());
+                    Map<GroupCommitQueue.Request<TransactionCreateDto, TransactionDto>, TransactionEntity> valid =
+                            new LinkedHashMap<>();
+                    for (GroupCommitQueue.Request<TransactionCreateDto, TransactionDto> request : batch) {
+                        TransactionCreateDto dto = request.payload();
+                        BigDecimal balance = balances.get(dto.customerId());
+                        if (balance == null || !sellers.contains(dto.sellerId())) {
+                            long id = balance == null ? dto.customerId() : dto.sellerId();
+                            log.warn("The user with id \"{}\" not found", id);
+                            request.result().completeExceptionally(new UserNotFoundByIdException(id));
+                        } else if (balance.compareTo(dto.total()) < 0) {
+                            log.warn("Customer by id \"{}\" has not enough money", dto.customerId());
+                            request.result().completeExceptionally(new InsufficientFundsException(balance, dto.total()));
+                        } else {
+                            balances.put(dto.customerId(), balance.subtract(dto.total()));
+                            valid.put(request, toTransactionEntity(dto));
+                        }
+                    }
 
-        TransactionEntity returnTransaction = new TransactionEntity();
-        returnTransaction.setDestinationId(customer.getId());
-        returnTransaction.setSourceId(seller.getId());
-        returnTransaction.setSourceDelta(originalTransaction.getDestinationDelta().multiply(BigDecimal.valueOf(-1)));
-        returnTransaction.setDestinationDelta(originalTransaction.getSourceDelta().multiply(BigDecimal.valueOf(-1)));
-        returnTransaction.setIsReturn(true);
-        returnTransaction.setTimeOfTransaction(ZonedDateTime.now());
+                    transactionRepository.saveAll(valid.values());
+                    valid.values().forEach(transaction -> ledgerService.book(transaction.getId(),
+                            transaction.getSourceId(), transaction.getDestinationId(),
+                            transaction.getSourceDelta().negate(), transaction.getDestinationDelta()));
+                    return valid;
+                });
+        accepted.forEach((request, transaction) -> request.result().complete(toTransactionDto(transaction)));
+    }
 
-        customer.setBalance(customer.getBalance().add(returnTransaction.getDestinationDelta()));
-        seller.setBalance(seller.getBalance().add(returnTransaction.getSourceDelta()));
+    @Transactional(readOnly = true)
+    public TransactionPageDto getIncoming(long userId, TransactionHistoryQuery query) {
+        return getPage(query, (from, beforeTime, beforeId, pageable) ->
+                transactionRepository.findIncomingPage(userId, from, beforeTime, beforeId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionPageDto getOutgoing(long userId, TransactionHistoryQuery query) {
+        return getPage(query, (from, beforeTime, beforeId, pageable) ->
+                transactionRepository.findOutgoingPage(userId, from, beforeTime, beforeId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionPageDto getReturns(long userId, TransactionHistoryQuery query) {
+        return getPage(query, (from, beforeTime, beforeId, pageable) ->
+                transactionRepository.findReturnPage(userId, from, beforeTime, beforeId, pageable));
+    }
 
-        log.info("Money successfully returned. Original transaction id: {}", originalTransactionId);
-        return toTransactionDto(transactionRepository.save(returnTransaction));
+    /**
+     * The transactions of the user in the month (UTC) as CSV, oldest first. Rows are written to the response as
+     * they are read from a database cursor, so the month is never held in memory.
+     */
+    public StreamingResponseBody getStatement(long userId, YearMonth month) {
+        userService.getUserById(userId);
+        ZonedDateTime from = month.atDay(1).atStartOfDay(ZoneOffset.UTC);
+        ZonedDateTime to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC);
+        return output -> readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TransactionDto> transactions = transactionRepository.streamStatement(userId, from, to)) {
+                writeStatement(userId, transactions, output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeStatement(long userId, Stream<TransactionDto> transactions, OutputStream output)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write("id,time_of_transaction,counterparty_id,amount,is_return\n");
+        for (TransactionDto transaction : (Iterable<TransactionDto>) transactions::iterator) {
+            long counterpartyId;
+            BigDecimal amount;
+            if (transaction.sourceId() == userId && transaction.destinationId() == userId) {
+                counterpartyId = userId;
+                amount = transaction.sourceDelta().add(transaction.destinationDelta());
+            } else if (transaction.sourceId() == userId) {
+                counterpartyId = transaction.destinationId();
+                amount = transaction.sourceDelta();
+            } else {
+                counterpartyId = transaction.sourceId();
+                amount = transaction.destinationDelta();
+            }
+            writer.write(transaction.id() + "," + transaction.timeOfTransaction().toOffsetDateTime() + "," +
+                    counterpartyId + "," + amount.toPlainString() + "," + transaction.isReturn() + "\n");
+        }
+        writer.flush();
+    }
+
+    private TransactionPageDto getPage(TransactionHistoryQuery query, PageFinder finder) {
+        HistoryWindow window = HistoryWindow.of(query.from(), query.to(), query.beforeTime(), query.beforeId(),
+                query.size());
+        List<TransactionEntity> transactions = finder.find(window.from(), window.beforeTime(), window.beforeId(),
+                PageRequest.of(0, window.limit()));
+        return window.page(transactions, TransactionEntity::getTimeOfTransaction, TransactionEntity::getId,
+                (rows, nextBeforeTime, nextBeforeId) -> new TransactionPageDto(
+                        rows.stream().map(this::toTransactionDto).toList(), nextBeforeTime, nextBeforeId));
+    }
+
+    private interface PageFinder {
+        List<TransactionEntity> find(ZonedDateTime from, ZonedDateTime beforeTime, long beforeId, Pageable pageable);
     }
 
     private TransactionEntity toTransactionEntity(TransactionCreateDto transactionCreateDto) {
@@ -77,15 +251,6 @@ public class TransactionService {
         return entity;
     }
 
-    private TransactionEntity getEntityById(long id) {
-        return transactionRepository.findById(id).orElseThrow(
-                () -> {
-                    log.warn("Transaction with id \"{}\" not found", id);
-                    return new TransactionNotFoundException(id);
-                }
-        );
-    }
-
     private TransactionDto toTransactionDto(TransactionEntity transaction) {
         return new TransactionDto(
                 transaction.getId(),
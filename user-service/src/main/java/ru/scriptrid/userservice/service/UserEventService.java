@@ -0,0 +1,94 @@
+package ru.scriptrid.userservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.scriptrid.common.dto.UserDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes the freezes, unfreezes and deletions of users to the subscribers of {@code /api/user/events}, so the services
+ * caching the status of users drop it at once instead of waiting for it to expire. A change is pushed after the
+ * transaction making it commits.
+ * <p>
+ * Events are not stored: a subscriber gets {@code subscribed} first and should drop everything it cached while it was
+ * not subscribed. A change made on another instance of user-service only reaches the subscribers of that instance,
+ * so the caches still bound the age of an entry.
+ */
+@Service
+@Slf4j
+public class UserEventService {
+    public static final String USER_EVENT = "user";
+    public static final String SUBSCRIBED_EVENT = "subscribed";
+
+    private final Duration emitterTimeout;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    public UserEventService(MeterRegistry meterRegistry,
+                            @Value("${users.events.emitter-timeout}") Duration emitterTimeout) {
+        this.emitterTimeout = emitterTimeout;
+        Gauge.builder("user.events.subscribers", subscribers, List::size)
+                .description("Subscribers of the user status feed")
+                .register(meterRegistry);
+    }
+
+    public void publish(UserDto user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            push(user);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                push(user);
+            }
+        });
+    }
+
+    private void push(UserDto user) {
+        subscribers.forEach(subscriber -> send(subscriber, SseEmitter.event().name(USER_EVENT).data(user)));
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        send(emitter, SseEmitter.event().name(SUBSCRIBED_EVENT));
+        return emitter;
+    }
+
+    /**
+     * Keeps idle connections open through proxies and lets subscribers notice a dead one.
+     */
+    @Scheduled(fixedDelayString = "${users.events.heartbeat}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> send(subscriber, SseEmitter.event().comment("heartbeat")));
+    }
+
+    /**
+     * An emitter is not safe for concurrent sends, so they are serialized on it.
+     */
+    private void send(SseEmitter subscriber, SseEmitter.SseEventBuilder event) {
+        synchronized (subscriber) {
+            try {
+                subscriber.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping a subscriber of the user feed", e);
+                subscribers.remove(subscriber);
+                subscriber.completeWithError(e);
+            }
+        }
+    }
+}
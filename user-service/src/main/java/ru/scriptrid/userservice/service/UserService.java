@@ -1,6 +1,7 @@
 package ru.scriptrid.userservice.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -8,16 +9,22 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.userservice.exceptions.TooManyIdsException;
 import ru.scriptrid.userservice.exceptions.UserNotFoundByIdException;
 import ru.scriptrid.userservice.exceptions.UserNotFoundByUsernameException;
 import ru.scriptrid.userservice.exceptions.UsernameAlreadyExistsException;
 import ru.scriptrid.userservice.model.UserDetailsImpl;
+import ru.scriptrid.userservice.model.dto.BalanceDto;
 import ru.scriptrid.userservice.model.dto.CreateUserDto;
 import ru.scriptrid.userservice.model.entity.UserEntity;
 import ru.scriptrid.userservice.repository.UserRepository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 
 @Service
@@ -26,11 +33,21 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LedgerService ledgerService;
+    private final PasswordService passwordService;
+    private final UserEventService userEventService;
+    private final int batchMaxIds;
 
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, LedgerService ledgerService,
+                       PasswordService passwordService, UserEventService userEventService,
+                       @Value("${users.batch.max-ids}") int batchMaxIds) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.ledgerService = ledgerService;
+        this.passwordService = passwordService;
+        this.userEventService = userEventService;
+        this.batchMaxIds = batchMaxIds;
     }
 
 
@@ -48,11 +65,17 @@ public class UserService implements UserDetailsService {
     @Transactional
     public UserDto setBalance(long id, BigDecimal balance) {
         UserEntity entity = getUserById(id);
-        entity.setBalance(balance);
-        log.info("Balance was set for user with id \"{}\". Actual balance: {}", entity.getId(), entity.getBalance());
+        ledgerService.adjustTo(id, balance);
+        log.info("Balance was set for user with id \"{}\". Actual balance: {}", entity.getId(), balance);
         return toUserDto(entity);
     }
 
+    @Transactional(readOnly = true)
+    public BalanceDto getBalance(long id) {
+        getUserById(id);
+        return new BalanceDto(id, ledgerService.balanceOf(id));
+    }
+
     @Transactional
     public void setFreeze(long id, boolean isFrozen) {
         UserEntity entity = getUserById(id);
@@ -62,6 +85,7 @@ public class UserService implements UserDetailsService {
         } else {
             log.info("User with id \"{}\" has been unfrozen", entity.getId());
         }
+        userEventService.publish(toUserDto(entity));
     }
 
     @Transactional
@@ -69,6 +93,7 @@ public class UserService implements UserDetailsService {
         UserEntity entity = getUserById(id);
         entity.setIsDeleted(true);
         log.info("User with id \"{}\" has been deleted", entity.getId());
+        userEventService.publish(toUserDto(entity));
     }
 
     @Override
@@ -125,6 +150,28 @@ public class UserService implements UserDetailsService {
         return toUserDto(entity);
     }
 
+    /**
+     * Loads the users in one query; at most {@code users.batch.max-ids} ids are taken at once.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> getUserDtosByIds(Collection<Long> ids) {
+        if (ids.size() > batchMaxIds) {
+            log.warn("{} users were asked for at once, at most {} are allowed", ids.size(), batchMaxIds);
+            throw new TooManyIdsException(ids.size(), batchMaxIds);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findAllByIdIn(ids.toArray(Long[]::new))
+                .stream()
+                .map(this::toUserDto)
+                .toList();
+    }
+
+    public Set<Long> getExistingIds(Collection<Long> ids) {
+        return new HashSet<>(userRepository.findExistingIds(ids));
+    }
+
     public List<UserDto> getUsers() {
         return userRepository
                 .findAll()
@@ -133,10 +180,21 @@ public class UserService implements UserDetailsService {
                 .toList();
     }
 
-    public boolean isAbleToLogIn(String username) {
-        return userRepository.findByUsername(username)
-                .map(user -> !user.getIsFrozen() && !user.getIsDeleted())
-                .orElse(false);
+    /**
+     * Loads the user once and checks the password on the password workers. No transaction is held meanwhile.
+     *
+     * @return the user, or empty if there is no such user, it may not log in or the password does not match
+     */
+    public Optional<UserDto> logIn(String username, String password) {
+        Optional<UserEntity> user = userRepository.findByUsername(username);
+        if (user.isEmpty() || user.get().getIsFrozen() || user.get().getIsDeleted()) {
+            log.warn("User \"{}\" was not able to login", username);
+            return Optional.empty();
+        }
+        if (!passwordService.matches(password, user.get().getPassword())) {
+            log.warn("User \"{}\" entered a wrong password", username);
+            return Optional.empty();
+        }
+        return user.map(this::toUserDto);
     }
 }
-
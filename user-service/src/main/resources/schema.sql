@@ -0,0 +1,20 @@
+-- Balances are derived from an append-only ledger: every transfer appends one entry per account, and the entries
+-- of a transfer sum up to zero. ledger_entries is range-partitioned by month on created_at, monthly partitions are
+-- maintained by LedgerPartitionService. Hibernate cannot declare partitioned tables, so the parent and its indexes
+-- are created here before the JPA schema update runs.
+create sequence if not exists ledger_entry_seq start with 1 increment by 50;
+
+create table if not exists ledger_entries
+(
+    entry_id       bigint                      not null,
+    account_id     bigint                      not null,
+    transaction_id bigint,
+    amount         numeric(19, 2)              not null,
+    created_at     timestamp(6) with time zone not null,
+    primary key (entry_id, created_at)
+) partition by range (created_at);
+
+create table if not exists ledger_entries_default partition of ledger_entries default;
+
+create index if not exists idx_ledger_entries_account_time on ledger_entries (account_id, created_at);
+create index if not exists idx_ledger_entries_transaction on ledger_entries (transaction_id);
@@ -0,0 +1,144 @@
+package ru.scriptrid.userservice.controller;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.userservice.UserServiceApplication;
+import ru.scriptrid.userservice.model.dto.CreateUserDto;
+import ru.scriptrid.userservice.service.UserService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Floods {@code /api/auth/login} from many clients, which wait for the {@code Retry-After} second when rejected,
+ * while another client looks users up by id, as other services do, and reports the login outcomes and the lookup
+ * latency. Run with {@code ./gradlew :user-service:loadTest}.
+ */
+@Tag("load")
+@SpringBootTest(classes = UserServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoginStormBenchmark {
+    private static final int LOGIN_CLIENTS = 50;
+    private static final Duration DURATION = Duration.ofSeconds(20);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_LOOKUP_P99 = Duration.ofSeconds(1);
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JwtService jwtService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void lookupsSurviveLoginStorm() throws InterruptedException {
+        UserDto user = userService.addUser(new CreateUserDto("storm", "password123", "storm@shop.io"));
+        String adminToken = jwtService.generateUserToken(new UserDto(user.id(), "admin", "admin@shop.io",
+                true, false, false));
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"storm\",\"password\":\"password123\"}"))
+                .build();
+        HttpRequest lookup = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/" + user.id()))
+                .header("Authorization", "Bearer " + adminToken)
+                .GET()
+                .build();
+
+        Map<Integer, LongAdder> loginOutcomes = new ConcurrentHashMap<>();
+        List<Long> lookupLatencies = Collections.synchronizedList(new ArrayList<>());
+        LongAdder failedLookups = new LongAdder();
+        long end = System.nanoTime() + DURATION.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(LOGIN_CLIENTS + 1);
+        for (int i = 0; i < LOGIN_CLIENTS; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    int status = send(client, login);
+                    loginOutcomes.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    if (status == 503) {
+                        sleep(RETRY_DELAY.toMillis());
+                    }
+                }
+            });
+        }
+        clients.execute(() -> {
+            while (System.nanoTime() < end) {
+                long start = System.nanoTime();
+                if (send(client, lookup) != 200) {
+                    failedLookups.increment();
+                }
+                lookupLatencies.add(System.nanoTime() - start);
+                sleep(20);
+            }
+        });
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(DURATION.toSeconds() + 60, TimeUnit.SECONDS));
+
+        List<Long> sorted = new ArrayList<>(lookupLatencies);
+        Collections.sort(sorted);
+        long p50 = sorted.get(sorted.size() / 2);
+        long p99 = sorted.get(sorted.size() * 99 / 100);
+        System.out.printf("logins by status: %s%n", loginOutcomes);
+        System.out.printf("lookups: %d, p50 %.1f ms, p99 %.1f ms%n", sorted.size(), p50 / 1e6, p99 / 1e6);
+        assertEquals(0, failedLookups.sum(), "Failed lookups");
+        assertTrue(loginOutcomes.containsKey(200), "No login succeeded");
+        assertTrue(p99 < MAX_LOOKUP_P99.toNanos(), "Lookups were starved by the logins");
+    }
+
+    private static int send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
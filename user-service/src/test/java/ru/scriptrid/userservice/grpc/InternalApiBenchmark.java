@@ -0,0 +1,254 @@
+package ru.scriptrid.userservice.grpc;
+
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.scriptrid.common.client.ServiceWebClientFactory;
+import ru.scriptrid.common.dto.TransactionCreateDto;
+import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.common.dto.UserDto;
+import ru.scriptrid.common.grpc.GrpcServer;
+import ru.scriptrid.common.grpc.ProtoMapper;
+import ru.scriptrid.common.grpc.ServiceChannelFactory;
+import ru.scriptrid.common.grpc.api.*;
+import ru.scriptrid.common.security.JwtService;
+import ru.scriptrid.userservice.UserServiceApplication;
+import ru.scriptrid.userservice.model.entity.UserEntity;
+import ru.scriptrid.userservice.repository.UserRepository;
+import ru.scriptrid.userservice.service.UserService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the internal gRPC API with the REST endpoints called through {@link ServiceWebClientFactory}, the way
+ * order-service calls them: user lookups one at a time for latency and from many threads for throughput, the same
+ * lookups as one gRPC stream, and transfers into one seller unary and streamed. Run with
+ * {@code ./gradlew :user-service:loadTest}.
+ */
+@Tag("load")
+@SpringBootTest(classes = UserServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class InternalApiBenchmark {
+    private static final int USERS = 64;
+    private static final int LATENCY_CALLS = 2000;
+    private static final int THROUGHPUT_CALLS = 8000;
+    private static final int TRANSFERS = 2000;
+    private static final int THREADS = 32;
+    private static final BigDecimal PRICE = new BigDecimal("1.00");
+    private static final BigDecimal SELLERS_INCOME = new BigDecimal("0.95");
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private GrpcServer grpcServer;
+    @Autowired
+    private ServiceChannelFactory channelFactory;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void grpcAgainstWebClient() throws InterruptedException {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(createUser("user" + i, new BigDecimal("1000000.00")));
+        }
+        WebClient webClient = new ServiceWebClientFactory(WebClient.builder(), new SimpleMeterRegistry(), THREADS,
+                Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofSeconds(30),
+                false, true)
+                .create("user-service", "http://localhost:" + port);
+        Channel channel = channelFactory.create("user-service", "localhost:" + grpcServer.getPort());
+        UserInternalGrpc.UserInternalBlockingStub blockingStub = UserInternalGrpc.newBlockingStub(channel);
+        UserInternalGrpc.UserInternalStub stub = UserInternalGrpc.newStub(channel);
+
+        LongFunction<UserDto> restLookup = id -> webClient.get()
+                .uri("/api/user/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToMono(UserDto.class)
+                .block();
+        LongFunction<UserDto> grpcLookup = id -> ProtoMapper.fromProto(
+                blockingStub.getUser(UserId.newBuilder().setId(id).build()));
+        LongUnaryOperator restTransfer = buyer -> webClient.put()
+                .uri("/api/transaction/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(transfer(buyer, users.get(0)))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateServiceToken())
+                .retrieve()
+                .bodyToMono(TransactionDto.class)
+                .map(TransactionDto::id)
+                .block();
+
+        for (int i = 0; i < LATENCY_CALLS; i++) {
+            long id = users.get(i % USERS);
+            assertEquals(restLookup.apply(id), grpcLookup.apply(id));
+        }
+
+        System.out.printf("%-28s %10s %10s %10s%n", "", "calls/s", "p50 ms", "p99 ms");
+        print("getUser REST, 1 thread", run(LATENCY_CALLS, 1, i -> restLookup.apply(users.get(i % USERS))));
+        print("getUser gRPC, 1 thread", run(LATENCY_CALLS, 1, i -> grpcLookup.apply(users.get(i % USERS))));
+        print("getUser REST, " + THREADS + " threads",
+                run(THROUGHPUT_CALLS, THREADS, i -> restLookup.apply(users.get(i % USERS))));
+        print("getUser gRPC, " + THREADS + " threads",
+                run(THROUGHPUT_CALLS, THREADS, i -> grpcLookup.apply(users.get(i % USERS))));
+        print("getUsers gRPC, 1 stream", stream(THROUGHPUT_CALLS, stub::getUsers,
+                i -> UserId.newBuilder().setId(users.get(i % USERS)).build(), UserResult::hasFailure));
+
+        long seller = users.get(0);
+        print("transfer REST, " + THREADS + " threads",
+                run(TRANSFERS, THREADS, i -> restTransfer.applyAsLong(users.get(1 + i % (USERS - 1)))));
+        print("transfer gRPC, " + THREADS + " threads", run(TRANSFERS, THREADS, i -> blockingStub.transfer(
+                ProtoMapper.toProto(transfer(users.get(1 + i % (USERS - 1)), seller)))));
+        print("transfers gRPC, 1 stream", stream(TRANSFERS, stub::transfers,
+                i -> ProtoMapper.toProto(transfer(users.get(1 + i % (USERS - 1)), seller)), TransferResult::hasFailure));
+
+        BigDecimal expected = SELLERS_INCOME.multiply(BigDecimal.valueOf(3L * TRANSFERS)).add(new BigDecimal("1000000.00"));
+        assertEquals(0, expected.compareTo(userService.getBalance(seller).balance()), "Seller balance");
+    }
+
+    private static TransactionCreateDto transfer(long buyer, long seller) {
+        return new TransactionCreateDto(buyer, seller, PRICE, SELLERS_INCOME);
+    }
+
+    private static void print(String name, Result result) {
+        System.out.printf("%-28s %10.0f %10.2f %10.2f%n", name, result.throughput(), result.p50() / 1e6,
+                result.p99() / 1e6);
+    }
+
+    /**
+     * Makes {@code calls} calls from {@code threads} threads, each timed on its own.
+     */
+    private static Result run(int calls, int threads, IntFunction<?> call) throws InterruptedException {
+        long[] latencies = new long[calls];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = next.getAndIncrement(); i < calls; i = next.getAndIncrement()) {
+                    long callStart = System.nanoTime();
+                    try {
+                        call.apply(i);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - callStart;
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES), "Calls did not finish in time");
+        long elapsed = System.nanoTime() - start;
+        assertEquals(0, failures.get(), "Failed calls");
+        return Result.of(latencies, elapsed);
+    }
+
+    /**
+     * Sends {@code calls} requests over one stream at once; the latency of a request is the time until its answer,
+     * so it includes the wait behind the requests before it.
+     */
+    private static <Q, R> Result stream(int calls, Function<StreamObserver<R>, StreamObserver<Q>> call,
+                                        IntFunction<Q> request, Predicate<R> failed) throws InterruptedException {
+        long[] sent = new long[calls];
+        long[] latencies = new long[calls];
+        AtomicInteger answered = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+        StreamObserver<Q> requests = call.apply(new StreamObserver<>() {
+            @Override
+            public void onNext(R response) {
+                int i = answered.getAndIncrement();
+                latencies[i] = System.nanoTime() - sent[i];
+                if (failed.test(response)) {
+                    failures.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                failures.incrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        for (int i = 0; i < calls; i++) {
+            sent[i] = System.nanoTime();
+            requests.onNext(request.apply(i));
+        }
+        requests.onCompleted();
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Stream did not finish in time");
+        long elapsed = System.nanoTime() - start;
+        assertEquals(0, failures.get(), "Failed calls");
+        assertEquals(calls, answered.get(), "Answers");
+        return Result.of(latencies, elapsed);
+    }
+
+    private long createUser(String username, BigDecimal balance) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(username + "@shop.io");
+        user.setPassword("password");
+        long id = userRepository.save(user).getId();
+        userService.setBalance(id, balance);
+        return id;
+    }
+
+    private record Result(double throughput, long p50, long p99) {
+        static Result of(long[] latencies, long elapsed) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return new Result(sorted.length / (elapsed / 1e9), sorted[sorted.length / 2],
+                    sorted[sorted.length * 99 / 100]);
+        }
+    }
+}
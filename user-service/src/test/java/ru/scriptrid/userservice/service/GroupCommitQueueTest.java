@@ -0,0 +1,72 @@
+package ru.scriptrid.userservice.service;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class GroupCommitQueueTest {
+    private static final int THREADS = 8;
+    private static final int SUBMITS = 200;
+
+    /**
+     * Every submit racing with close is either handled or fails; none waits for a dispatcher that already exited.
+     */
+    @RepeatedTest(20)
+    void submitsRacingWithCloseNeverHang() throws Exception {
+        GroupCommitQueue<Integer, Integer> queue = new GroupCommitQueue<>("test-group-commit", Duration.ZERO, 16,
+                batch -> batch.forEach(request -> request.result().complete(request.payload())));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                submitters.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < SUBMITS; i++) {
+                        try {
+                            assertEquals(i, queue.submit(i));
+                        } catch (IllegalStateException e) {
+                            return null;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            Thread.sleep(1);
+            queue.close();
+            for (Future<?> submitter : submitters) {
+                submitter.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * An error in the handler fails its batch and closes the queue; later submits fail instead of hanging.
+     */
+    @Test
+    void errorInTheHandlerClosesTheQueue() {
+        GroupCommitQueue<Integer, Integer> queue = new GroupCommitQueue<>("test-group-commit", Duration.ZERO, 16,
+                batch -> {
+                    throw new Error("Handler broke");
+                });
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(Error.class, () -> queue.submit(1));
+            assertThrows(IllegalStateException.class, () -> queue.submit(2));
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package ru.scriptrid.userservice.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.scriptrid.common.dto.TransactionCreateDto;
+import ru.scriptrid.userservice.UserServiceApplication;
+import ru.scriptrid.userservice.model.entity.UserEntity;
+import ru.scriptrid.userservice.repository.TransactionRepository;
+import ru.scriptrid.userservice.repository.UserRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends many concurrent transfers between random users, first with a commit per transfer and then with group
+ * commit at several batch windows, and reports throughput and latency. Run with
+ * {@code ./gradlew :user-service:loadTest}.
+ */
+@Tag("load")
+@SpringBootTest(classes = UserServiceApplication.class)
+class GroupCommitTransferBenchmark {
+    private static final Duration[] WINDOWS = {Duration.ZERO, Duration.ofMillis(1), Duration.ofMillis(2),
+            Duration.ofMillis(5), Duration.ofMillis(10)};
+    private static final int USERS = 200;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 64;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final BigDecimal PRICE = new BigDecimal("1.00");
+    private static final BigDecimal SELLERS_INCOME = new BigDecimal("0.95");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url",
+                () -> postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void transfersWithGroupCommit() throws InterruptedException {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(createUser("user" + i, new BigDecimal("1000000.00")));
+        }
+        run(transactionService, users);
+
+        System.out.printf("%12s %14s %10s %10s%n", "window", "transfers/s", "p50 ms", "p99 ms");
+        print("off", run(transactionService, users));
+        for (Duration window : WINDOWS) {
+            TransactionService groupCommit = new TransactionService(ledgerService, userService,
+                    transactionRepository, transactionManager, true, window, MAX_BATCH_SIZE);
+            try {
+                print(window.toMillis() + " ms", run(groupCommit, users));
+            } finally {
+                groupCommit.stopGroupCommit();
+            }
+        }
+    }
+
+    private Result run(TransactionService service, List<Long> users) throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[TRANSFERS];
+        CountDownLatch done = new CountDownLatch(TRANSFERS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            int transfer = i;
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long sent = System.nanoTime();
+                try {
+                    service.transferMoney(new TransactionCreateDto(users.get(random.nextInt(USERS)),
+                            users.get(random.nextInt(USERS)), PRICE, SELLERS_INCOME));
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    latencies[transfer] = System.nanoTime() - sent;
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Transfers did not finish in time");
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        assertEquals(0, failures.get(), "Failed transfers");
+        Arrays.sort(latencies);
+        return new Result(TRANSFERS / (elapsed / 1e9), latencies[TRANSFERS / 2] / 1e6,
+                latencies[TRANSFERS * 99 / 100] / 1e6);
+    }
+
+    private static void print(String window, Result result) {
+        System.out.printf("%12s %14.0f %10.1f %10.1f%n", window, result.throughput(), result.p50Ms(),
+                result.p99Ms());
+    }
+
+    private long createUser(String username, BigDecimal balance) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(username + "@shop.io");
+        user.setPassword("password");
+        long id = userRepository.save(user).getId();
+        userService.setBalance(id, balance);
+        return id;
+    }
+
+    private record Result(double throughput, double p50Ms, double p99Ms) {
+    }
+}
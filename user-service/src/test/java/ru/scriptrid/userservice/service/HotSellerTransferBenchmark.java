@@ -0,0 +1,115 @@
+package ru.scriptrid.userservice.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.scriptrid.common.dto.TransactionCreateDto;
+import ru.scriptrid.userservice.UserServiceApplication;
+import ru.scriptrid.userservice.model.entity.UserEntity;
+import ru.scriptrid.userservice.repository.UserRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends many concurrent transfers from different buyers into one seller and reports the throughput, while balance
+ * snapshots are taken in the background. Run with {@code ./gradlew :user-service:loadTest}.
+ */
+@Tag("load")
+@SpringBootTest(classes = UserServiceApplication.class,
+        properties = {"users.ledger.snapshot-delay=PT0.5S", "users.ledger.settle-time=PT1S"})
+class HotSellerTransferBenchmark {
+    private static final int BUYERS = 64;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 32;
+    private static final BigDecimal PRICE = new BigDecimal("1.00");
+    private static final BigDecimal SELLERS_INCOME = new BigDecimal("0.95");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void transfersIntoOneSeller() throws InterruptedException {
+        List<Long> buyers = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(createUser("buyer" + i, new BigDecimal("1000000.00")));
+        }
+        run(buyers, createUser("warm-up", BigDecimal.ZERO));
+
+        long seller = createUser("seller", BigDecimal.ZERO);
+        double throughput = run(buyers, seller);
+        System.out.printf("%14s%n%14.0f%n", "transfers/s", throughput);
+
+        BigDecimal expected = SELLERS_INCOME.multiply(BigDecimal.valueOf(TRANSFERS));
+        assertEquals(0, expected.compareTo(userService.getBalance(seller).balance()), "Seller balance");
+        ledgerService.takeSnapshots();
+        assertEquals(0, expected.compareTo(ledgerService.balanceOf(seller)), "Seller balance after a snapshot");
+    }
+
+    private double run(List<Long> buyers, long seller) throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(TRANSFERS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            long buyer = buyers.get(i % buyers.size());
+            executor.execute(() -> {
+                try {
+                    transactionService.transferMoney(new TransactionCreateDto(buyer, seller, PRICE, SELLERS_INCOME));
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Transfers did not finish in time");
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        assertEquals(0, failures.get(), "Failed transfers");
+        return TRANSFERS / (elapsed / 1e9);
+    }
+
+    private long createUser(String username, BigDecimal balance) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setEmail(username + "@shop.io");
+        user.setPassword("password");
+        long id = userRepository.save(user).getId();
+        userService.setBalance(id, balance);
+        return id;
+    }
+}
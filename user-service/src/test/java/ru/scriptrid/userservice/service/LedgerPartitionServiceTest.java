@@ -0,0 +1,64 @@
+package ru.scriptrid.userservice.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.scriptrid.userservice.UserServiceApplication;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Entries of a month whose partition is missing land in the default partition; creating the partition moves them.
+ */
+@SpringBootTest(classes = UserServiceApplication.class)
+class LedgerPartitionServiceTest {
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private LedgerPartitionService ledgerPartitionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void entriesInTheDefaultPartitionAreMovedIntoTheirMonth() {
+        YearMonth month = YearMonth.now(ZoneOffset.UTC).plusMonths(1);
+        String partition = "ledger_entries_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        jdbcTemplate.execute("drop table " + partition);
+        jdbcTemplate.update("insert into ledger_entries (entry_id, account_id, amount, created_at) " +
+                "values (-1000, 1000, 5, ?::timestamptz), (-1001, 1000, -5, ?::timestamptz)",
+                month.atDay(1) + " 00:00:00+00", month.atEndOfMonth() + " 12:00:00+00");
+        assertEquals(2, count("ledger_entries_default"));
+
+        ledgerPartitionService.createPartitions();
+
+        assertEquals(2, count(partition));
+        assertEquals(0, count("ledger_entries_default"));
+        assertEquals(2, count("ledger_entries where account_id = 1000"));
+    }
+
+    private int count(String from) {
+        return jdbcTemplate.queryForObject("select count(*) from " + from, Integer.class);
+    }
+}
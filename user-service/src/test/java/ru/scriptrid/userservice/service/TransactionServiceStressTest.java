@@ -0,0 +1,260 @@
+package ru.scriptrid.userservice.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.scriptrid.common.dto.TransactionCreateDto;
+import ru.scriptrid.common.dto.TransactionDto;
+import ru.scriptrid.userservice.UserServiceApplication;
+import ru.scriptrid.userservice.exceptions.InsufficientFundsException;
+import ru.scriptrid.userservice.model.entity.UserEntity;
+import ru.scriptrid.userservice.repository.TransactionRepository;
+import ru.scriptrid.userservice.repository.UserRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs thousands of concurrent transfers and returns between a small group of users, so the same rows are hit
+ * from many transactions at once, while balance snapshots are taken in the background, and checks that no money
+ * was created or lost. Runs once with a commit per transfer and once with group commit. Concurrent returns of one
+ * transfer must book a single return.
+ */
+@SpringBootTest(classes = UserServiceApplication.class,
+        properties = {"users.ledger.snapshot-delay=PT0.2S", "users.ledger.settle-time=PT0S"})
+class TransactionServiceStressTest {
+    private static final int USERS = 20;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100.00");
+    private static final int OPERATIONS = 4000;
+    private static final int THREADS = 32;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        registry.add("grpc.port", () -> 0);
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @ParameterizedTest(name = "group commit: {0}")
+    @ValueSource(booleans = {false, true})
+    void concurrentTransfersConserveMoney(boolean groupCommit) throws InterruptedException {
+        TransactionService transactionService = groupCommit
+                ? new TransactionService(ledgerService, userService, transactionRepository, transactionManager,
+                true, Duration.ofMillis(2), 64)
+                : this.transactionService;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(createUser("stress" + groupCommit + i));
+        }
+
+        ConcurrentLinkedQueue<Long> returnable = new ConcurrentLinkedQueue<>();
+        AtomicInteger transfers = new AtomicInteger();
+        AtomicInteger returns = new AtomicInteger();
+        AtomicInteger insufficientFunds = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(OPERATIONS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < OPERATIONS; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    Long transactionId = random.nextInt(10) == 0 ? returnable.poll() : null;
+                    if (transactionId != null) {
+                        transactionService.returnMoney(transactionId);
+                        returns.incrementAndGet();
+                    } else {
+                        long customerId = userIds.get(random.nextInt(USERS));
+                        long sellerId = userIds.get(random.nextInt(USERS));
+                        BigDecimal amount = BigDecimal.valueOf(random.nextInt(100, 3000), 2);
+                        TransactionDto transaction = transactionService.transferMoney(
+                                new TransactionCreateDto(customerId, sellerId, amount, amount));
+                        returnable.add(transaction.id());
+                        transfers.incrementAndGet();
+                    }
+                } catch (InsufficientFundsException e) {
+                    insufficientFunds.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Transfers did not finish in time");
+        executor.shutdown();
+        transactionService.stopGroupCommit();
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(OPERATIONS, transfers.get() + returns.get() + insufficientFunds.get());
+        assertTrue(insufficientFunds.get() > 0, "The balance check was never exercised");
+
+        assertEquals(0, ledgerReconciliationService.reconcile(), "Snapshots missed entries committed late");
+        ledgerService.takeSnapshots();
+        assertEquals(0, ledgerReconciliationService.reconcile(), "Fresh snapshots do not match the ledger");
+
+        BigDecimal total = jdbcTemplate.queryForObject("select sum(amount) from ledger_entries", BigDecimal.class);
+        assertEquals(0, BigDecimal.ZERO.compareTo(total), "Ledger entries do not sum up to zero: " + total);
+        BigDecimal usersTotal = userIds.stream().map(ledgerService::balanceOf).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(USERS)).compareTo(usersTotal),
+                "Money was created or lost: total balance is " + usersTotal);
+
+        jdbcTemplate.query("select user_id, sum(delta) from (" +
+                        "select source_id as user_id, source_delta as delta from transactions " +
+                        "union all select destination_id, destination_delta from transactions) deltas " +
+                        "where user_id <> ? group by user_id",
+                row -> {
+                    assertEquals(0, row.getBigDecimal(2).compareTo(ledgerService.balanceOf(row.getLong(1))),
+                            "Balance of user " + row.getLong(1) + " does not match its transactions");
+                }, LedgerService.PLATFORM_ACCOUNT_ID);
+    }
+
+    /**
+     * Transfers only, so no balance may ever go negative, with snapshots moved forward as fast as they can be. A
+     * snapshot that skips an entry committed after it was taken overstates the balance and lets a later transfer
+     * overdraw it.
+     */
+    @ParameterizedTest(name = "group commit: {0}")
+    @ValueSource(booleans = {false, true})
+    void transfersNeverOverdrawWhileSnapshotsAdvance(boolean groupCommit) throws InterruptedException {
+        TransactionService transactionService = groupCommit
+                ? new TransactionService(ledgerService, userService, transactionRepository, transactionManager,
+                true, Duration.ofMillis(2), 64)
+                : this.transactionService;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(createUser("overdraw" + groupCommit + i));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> negative = new ConcurrentLinkedQueue<>();
+        Thread snapshots = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                ledgerService.takeSnapshots();
+                for (long userId : userIds) {
+                    BigDecimal balance = ledgerService.balanceOf(userId);
+                    if (balance.signum() < 0) {
+                        negative.add("user " + userId + ": " + balance);
+                    }
+                }
+            }
+        });
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(OPERATIONS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < OPERATIONS; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    long customerId = userIds.get(random.nextInt(USERS));
+                    long sellerId = userIds.get(random.nextInt(USERS));
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(100, 3000), 2);
+                    transactionService.transferMoney(new TransactionCreateDto(customerId, sellerId, amount, amount));
+                } catch (InsufficientFundsException e) {
+                    // expected once a customer has spent its money
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Transfers did not finish in time");
+        executor.shutdown();
+        running.set(false);
+        snapshots.join();
+        transactionService.stopGroupCommit();
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertTrue(negative.isEmpty(), () -> "Negative balances were read: " + negative);
+        for (long userId : userIds) {
+            BigDecimal balance = jdbcTemplate.queryForObject(
+                    "select coalesce(sum(amount), 0) from ledger_entries where account_id = ?", BigDecimal.class, userId);
+            assertTrue(balance.signum() >= 0, "User " + userId + " was overdrawn to " + balance);
+        }
+    }
+
+    @Test
+    void concurrentReturnsOfATransactionBookOneReturn() throws Exception {
+        long customerId = createUser("returned-customer");
+        long sellerId = createUser("returned-seller");
+        BigDecimal amount = new BigDecimal("10.00");
+        TransactionDto transaction = transactionService.transferMoney(
+                new TransactionCreateDto(customerId, sellerId, amount, amount));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Set<Long> returnIds;
+        try {
+            List<Future<TransactionDto>> returns = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                returns.add(executor.submit(() -> transactionService.returnMoney(transaction.id())));
+            }
+            returnIds = new HashSet<>();
+            for (Future<TransactionDto> result : returns) {
+                returnIds.add(result.get(1, TimeUnit.MINUTES).id());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, returnIds.size(), "Every return must answer the same return transaction");
+        for (long userId : List.of(customerId, sellerId)) {
+            BigDecimal balance = jdbcTemplate.queryForObject(
+                    "select sum(amount) from ledger_entries where account_id = ?", BigDecimal.class, userId);
+            assertEquals(0, INITIAL_BALANCE.compareTo(balance), "Balance of user " + userId + " is " + balance);
+        }
+    }
+
+    private long createUser(String name) {
+        UserEntity user = new UserEntity();
+        user.setUsername(name);
+        user.setEmail(name + "@shop.io");
+        user.setPassword("password");
+        long id = userRepository.save(user).getId();
+        userService.setBalance(id, INITIAL_BALANCE);
+        return id;
+    }
+}